@@ -0,0 +1,104 @@
+package org.example.flowmod.engine;
+
+import java.util.Arrays;
+
+/**
+ * Square linear system with {@code kl} sub- and {@code ku} super-diagonals,
+ * solved by Gaussian elimination with partial pivoting in
+ * {@code O(n * kl * (kl + ku))}.
+ * <p>
+ * Row {@code i} stores columns {@code i - kl} to {@code i + ku + kl}; the
+ * extra {@code kl} columns hold the fill-in that row swaps introduce.
+ */
+final class BandedSystem {
+    private final int n;
+    private final int kl;
+    private final int ku;
+    private final int width;
+    private final double[] a;
+
+    BandedSystem(int n, int kl, int ku) {
+        this.n = n;
+        this.kl = kl;
+        this.ku = ku;
+        this.width = 2 * kl + ku + 1;
+        this.a = new double[n * width];
+    }
+
+    void clear() {
+        Arrays.fill(a, 0.0);
+    }
+
+    void set(int i, int j, double v) {
+        a[slot(i, j)] = v;
+    }
+
+    private double get(int i, int j) {
+        int off = j - i + kl;
+        return off < 0 || off >= width ? 0.0 : a[i * width + off];
+    }
+
+    private int slot(int i, int j) {
+        int off = j - i + kl;
+        if (off < 0 || off > kl + ku) {
+            throw new IllegalArgumentException("(" + i + "," + j + ") outside band");
+        }
+        return i * width + off;
+    }
+
+    /**
+     * Solve in place: the matrix is destroyed and {@code b} is overwritten
+     * with the solution.
+     *
+     * @throws ArithmeticException if the matrix is singular
+     */
+    void solve(double[] b) {
+        for (int k = 0; k < n; k++) {
+            int last = Math.min(n - 1, k + kl);
+            int pivot = k;
+            double max = Math.abs(get(k, k));
+            for (int i = k + 1; i <= last; i++) {
+                double v = Math.abs(get(i, k));
+                if (v > max) {
+                    max = v;
+                    pivot = i;
+                }
+            }
+            if (max == 0.0) {
+                throw new ArithmeticException("singular banded system at column " + k);
+            }
+            int right = Math.min(n - 1, k + kl + ku);
+            if (pivot != k) {
+                for (int j = k; j <= right; j++) {
+                    double t = get(k, j);
+                    a[k * width + j - k + kl] = get(pivot, j);
+                    a[pivot * width + j - pivot + kl] = t;
+                }
+                double t = b[k];
+                b[k] = b[pivot];
+                b[pivot] = t;
+            }
+            double diag = a[k * width + kl];
+            for (int i = k + 1; i <= last; i++) {
+                int ik = i * width + k - i + kl;
+                double factor = a[ik] / diag;
+                if (factor == 0.0) {
+                    continue;
+                }
+                a[ik] = 0.0;
+                for (int j = k + 1; j <= right; j++) {
+                    a[i * width + j - i + kl] -= factor * a[k * width + j - k + kl];
+                }
+                b[i] -= factor * b[k];
+            }
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = b[i];
+            int right = Math.min(n - 1, i + kl + ku);
+            for (int j = i + 1; j <= right; j++) {
+                sum -= a[i * width + j - i + kl] * b[j];
+            }
+            b[i] = sum / a[i * width + kl];
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.flowmod.engine;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation for the optimizer loops. Each outer iteration
+ * checks its thread's interrupt flag, so interrupting a thread, as
+ * {@code Future.cancel(true)} does, stops a design within one taper step or
+ * solver iteration. The flag is left set for the caller to see.
+ * <p>
+ * The same checkpoints run a hook installed on the calling thread with
+ * {@link #onCheck(Runnable)}, which lets a scheduler pause a running design
+ * between steps. A hook may block, and may throw
+ * {@link CancellationException} to abandon the design.
+ */
+public final class Cancellation {
+
+    private static final ThreadLocal<Runnable> HOOK = new ThreadLocal<>();
+
+    private Cancellation() {
+    }
+
+    /**
+     * Run {@code hook} at every checkpoint reached on the current thread, or
+     * remove the hook when {@code hook} is {@code null}.
+     */
+    public static void onCheck(Runnable hook) {
+        if (hook == null) {
+            HOOK.remove();
+        } else {
+            HOOK.set(hook);
+        }
+    }
+
+    /** @throws CancellationException if the current thread has been interrupted */
+    public static void check() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Design cancelled");
+        }
+        Runnable hook = HOOK.get();
+        if (hook != null) {
+            hook.run();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.flowmod.engine;
+
+/**
+ * Configuration interface supplying constraints for the optimiser.
+ */
+public interface DesignRules {
+
+    double DEFAULT_ROW_SPACING_MM = 120.0;
+    double UNIFORMITY_TARGET_PCT = 5.0;
+
+    /**
+     * Desired number of hole rows along the header.
+     *
+     * @return maximum rows allowed
+     */
+    default int rowCount() {
+        return 10;
+    }
+
+    /**
+     * Largest number of holes drilled around the circumference of one row.
+     *
+     * @return maximum holes per row
+     */
+    default int maxHolesPerRow() {
+        return 6;
+    }
+
+    /**
+     * Finest row pitch the spacing search may choose.
+     *
+     * @return minimum pitch in millimetres
+     */
+    default double minPitchMm() {
+        return 50.0;
+    }
+
+    /**
+     * Coarsest row pitch the spacing search may choose.
+     *
+     * @return maximum pitch in millimetres
+     */
+    default double maxPitchMm() {
+        return 150.0;
+    }
+
+    /**
+     * Manufacturing increment the row pitch is rounded to.
+     *
+     * @return pitch step in millimetres
+     */
+    default double pitchIncrementMm() {
+        return 5.0;
+    }
+
+    /**
+     * Model used to confirm the final candidates of a search. Tapering always
+     * runs in {@link Fidelity#FAST}.
+     *
+     * @return fidelity of the verification step
+     */
+    default Fidelity verificationFidelity() {
+        return Fidelity.ACCURATE;
+    }
+
+    /**
+     * Allowed drill diameters in millimetres.
+     *
+     * @return list of permitted drill diameters
+     */
+    default java.util.List<Double> allowableDrillSizesMm() {
+        return java.util.List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0);
+    }
+}
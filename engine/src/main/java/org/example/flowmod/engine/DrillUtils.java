@@ -44,21 +44,38 @@ public final class DrillUtils {
             return blank;
         }
 
-        java.util.List<Double> sizes = new java.util.ArrayList<>(drillSet);
-        sizes.sort(java.util.Comparator.reverseOrder());
-
-        double largest = sizes.get(0);
+        double largest = java.util.Collections.max(drillSet);
         for (int i = 0; i < holes.size(); i++) {
             HoleSpec h = holes.get(i);
-            holes.set(i, new HoleSpec(h.rowIndex(), largest, h.angleDeg(), h.spacingMm()));
+            holes.set(i, h.withDiameter(largest));
+        }
+        return taperFrom(toLayout(holes), drillSet, p);
+    }
+
+    /**
+     * Largest-first taper starting from the diameters already in {@code seeded},
+     * which must all belong to {@code drillSet}. Each step shrinks the largest
+     * hole of the row delivering most flow; once every hole of that row is at
+     * the smallest drill one of them is removed. Holes are only ever shrunk or
+     * removed, so a seed that is already too small cannot recover.
+     */
+    public static HoleLayout taperFrom(
+            HoleLayout seeded, java.util.List<Double> drillSet, FlowParameters p) {
+        java.util.List<HoleSpec> holes = new java.util.ArrayList<>(seeded.getHoles());
+        if (holes.isEmpty()) {
+            return seeded;
         }
 
+        java.util.List<Double> sizes = new java.util.ArrayList<>(drillSet);
+        sizes.sort(java.util.Comparator.reverseOrder());
+
         HoleLayout layout = toLayout(holes);
         final double target = 5.0;
 
         while (true) {
-            double suction = FlowPhysics.findRequiredSuctionKPa(layout, p, -100.0, -1.0);
-            java.util.List<Double> flows = FlowPhysics.rowFlows(layout, p, suction);
+            Cancellation.check();
+            double headerKPa = FlowPhysics.findHeaderPressureKPa(layout, p);
+            java.util.List<Double> flows = FlowPhysics.rowFlows(layout, p, headerKPa);
             org.apache.commons.math3.stat.descriptive.DescriptiveStatistics stats =
                     new org.apache.commons.math3.stat.descriptive.DescriptiveStatistics();
             for (double q : flows) {
@@ -83,14 +100,23 @@ public final class DrillUtils {
                 break;
             }
 
-            HoleSpec h = holes.get(idx);
+            // flows are per row; the row's holes are consecutive in the layout
+            int first = firstHoleOfRow(holes, idx);
+            int hole = first;
+            for (int i = first + 1; i < holes.size() && holes.get(i).rowIndex() == holes.get(first).rowIndex(); i++) {
+                if (holes.get(i).holeDiameterMm() > holes.get(hole).holeDiameterMm()) {
+                    hole = i;
+                }
+            }
+
+            HoleSpec h = holes.get(hole);
             int pos = sizes.indexOf(h.holeDiameterMm());
             if (pos < sizes.size() - 1) {
                 // shrink to next smaller drill size
-                holes.set(idx, new HoleSpec(h.rowIndex(), sizes.get(pos + 1), h.angleDeg(), h.spacingMm()));
+                holes.set(hole, h.withDiameter(sizes.get(pos + 1)));
             } else {
-                // cannot shrink further -> remove the row
-                holes.remove(idx);
+                // cannot shrink further -> drop the hole, and the row with its last hole
+                holes.remove(hole);
                 if (holes.isEmpty()) {
                     break;
                 }
@@ -101,26 +127,15 @@ public final class DrillUtils {
         return layout;
     }
 
-    private static HoleLayout minimiseDrillChanges(HoleLayout layout) {
-        java.util.List<HoleSpec> result = new java.util.ArrayList<>();
-        java.util.List<HoleSpec> currentGroup = new java.util.ArrayList<>();
-        Double prevDiameter = null;
-
-        for (HoleSpec h : layout.getHoles()) {
-            double d = h.holeDiameterMm();
-            if (prevDiameter == null || Double.compare(prevDiameter, d) == 0) {
-                currentGroup.add(h);
-            } else {
-                // flush previous group before starting a new one
-                result.addAll(currentGroup);
-                currentGroup.clear();
-                currentGroup.add(h);
+    /** Index in {@code holes} of the first hole of the {@code row}-th row. */
+    private static int firstHoleOfRow(java.util.List<HoleSpec> holes, int row) {
+        int rows = 0;
+        for (int i = 1; i < holes.size(); i++) {
+            if (holes.get(i).rowIndex() != holes.get(i - 1).rowIndex() && ++rows == row) {
+                return i;
             }
-            prevDiameter = d;
         }
-
-        result.addAll(currentGroup);
-        return toLayout(result);
+        return 0;
     }
 
     private static HoleLayout toLayout(java.util.List<HoleSpec> specs) {
@@ -0,0 +1,12 @@
+package org.example.flowmod.engine;
+
+/** Level of detail of the header model. */
+public enum Fidelity {
+    /** One friction drop per gap and lumped static regain at each row. */
+    FAST,
+    /**
+     * Developing-flow friction over each gap and a momentum balance across
+     * each row, for pressure and suction headers alike.
+     */
+    ACCURATE;
+}
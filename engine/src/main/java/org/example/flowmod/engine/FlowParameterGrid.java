@@ -0,0 +1,80 @@
+package org.example.flowmod.engine;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily enumerated cartesian grid of {@link FlowParameters}.
+ * <p>
+ * Points are produced on demand, so iterating a grid of any size holds only
+ * the three axes in memory.
+ */
+public final class FlowParameterGrid implements Iterable<FlowParameters> {
+    private final double[] pipeDiametersMm;
+    private final double[] flowsLps;
+    private final double[] headerLensMm;
+    private final HeaderType headerType;
+
+    /** Grid of suction headers. */
+    public FlowParameterGrid(double[] pipeDiametersMm, double[] flowsLps, double[] headerLensMm) {
+        this(pipeDiametersMm, flowsLps, headerLensMm, HeaderType.SUCTION);
+    }
+
+    public FlowParameterGrid(double[] pipeDiametersMm, double[] flowsLps, double[] headerLensMm,
+                             HeaderType headerType) {
+        if (headerType == null) {
+            throw new IllegalArgumentException("headerType must not be null");
+        }
+        if (pipeDiametersMm.length == 0 || flowsLps.length == 0 || headerLensMm.length == 0) {
+            throw new IllegalArgumentException("grid axes must not be empty");
+        }
+        this.pipeDiametersMm = pipeDiametersMm.clone();
+        this.flowsLps = flowsLps.clone();
+        this.headerLensMm = headerLensMm.clone();
+        this.headerType = headerType;
+    }
+
+    /**
+     * Evenly spaced axis from {@code from} to {@code to} inclusive.
+     */
+    public static double[] axis(double from, double to, int points) {
+        if (points < 1) {
+            throw new IllegalArgumentException("points must be >= 1");
+        }
+        double[] a = new double[points];
+        for (int i = 0; i < points; i++) {
+            a[i] = points == 1 ? from : from + (to - from) * i / (points - 1);
+        }
+        return a;
+    }
+
+    /** Number of points in the grid. */
+    public long size() {
+        return (long) pipeDiametersMm.length * flowsLps.length * headerLensMm.length;
+    }
+
+    @Override
+    public Iterator<FlowParameters> iterator() {
+        return new Iterator<>() {
+            private long next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public FlowParameters next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long i = next++;
+                int l = (int) (i % headerLensMm.length);
+                i /= headerLensMm.length;
+                int f = (int) (i % flowsLps.length);
+                int d = (int) (i / flowsLps.length);
+                return new FlowParameters(pipeDiametersMm[d], flowsLps[f], headerLensMm[l], headerType);
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.flowmod.engine;
+
+/**
+ * Parameters describing the fluid flow system.
+ *
+ * @param pipeDiameterMm internal pipe diameter in millimetres
+ * @param flowLps        total volumetric flow supplied to the header in litres per second
+ * @param headerLenMm    header length in millimetres
+ * @param headerType     whether the header collects (suction) or distributes (pressure) flow
+ */
+public record FlowParameters(double pipeDiameterMm,
+                             double flowLps,
+                             double headerLenMm,
+                             HeaderType headerType) {
+
+    public FlowParameters {
+        if (headerType == null) {
+            throw new IllegalArgumentException("headerType must not be null");
+        }
+    }
+
+    /** Suction header parameters. */
+    public FlowParameters(double pipeDiameterMm, double flowLps, double headerLenMm) {
+        this(pipeDiameterMm, flowLps, headerLenMm, HeaderType.SUCTION);
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.flowmod.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilities for computing simple flow equations used by optimizers.
+ */
+public final class FlowPhysics {
+    private static final double RHO = 1000.0;       // kg/m^3
+    private static final double MU = 0.001;         // Pa.s
+    private static final double EPS = 4.5e-5;       // m, typical roughness (0.045 mm)
+    private static final double REGAIN = 0.6;       // static regain coefficient at a branch
+    private static final double DEV_EXCESS = 0.5;   // extra friction just downstream of a branch
+    private static final double DEV_LENGTH_D = 10.0; // decay length of that excess, pipe diameters
+
+    public FlowPhysics() {
+    }
+
+    /** Empirical discharge coefficient as a function of Reynolds number. */
+    private static double computeCd(double Re) {
+        if (Re <= 0) {
+            return 0.0;
+        }
+        return 0.611 - 0.075 * Math.pow(Re / 1.0e5, -0.2);
+    }
+
+    /** Volumetric flow through a circular orifice, L/s. */
+    public static double orificeFlowLps(double dMm, double dp_kPa) {
+        return orificeFlowFromAreaLps(RowKernel.holeAreaM2(dMm), dp_kPa);
+    }
+
+    /** Volumetric flow through an open area (m^2), L/s. */
+    static double orificeFlowFromAreaLps(double areaM2, double dp_kPa) {
+        double q = 0.61 * areaM2 * Math.sqrt(2 * dp_kPa * 1000 / RHO); // m^3/s
+        return q * 1000.0;
+    }
+
+    /** Pressure drop (kPa) required to get Q L/s through orifice d mm. */
+    public static double orificeDeltaP_kPa(double qLps, double dMm) {
+        double q = qLps / 1000.0;
+        double area = Math.PI * dMm * dMm / 4e6;
+        return Math.pow(q / (0.61 * area), 2) / 2;
+    }
+
+    /** Darcy–Weisbach friction head loss (kPa) for pipe section. */
+    public static double frictionDrop_kPa(double lengthMm, double idMm, double flowLps) {
+        double L = lengthMm / 1000.0;
+        double D = idMm / 1000.0;
+        double Q = flowLps / 1000.0;
+        if (Q <= 0.0 || D <= 0.0 || L <= 0.0) {
+            return 0.0;
+        }
+        double area = Math.PI * D * D / 4.0;
+        double v = Q / area;
+        double Re = RHO * v * D / MU;
+        double f;
+        if (Re <= 4000.0 && Re > 0) {
+            f = 64.0 / Re;
+        } else {
+            double term = EPS / (3.7 * D) + 5.74 / Math.pow(Re, 0.9);
+            f = 0.25 / Math.pow(Math.log10(term), 2.0);
+        }
+        double dp = f * (L / D) * (RHO * v * v / 2.0);
+        return dp / 1000.0;
+    }
+
+    /**
+     * Friction loss (kPa) over a gap that starts at a branch, where the
+     * disturbed profile raises wall shear above the fully developed value and
+     * decays over roughly {@value #DEV_LENGTH_D} diameters. The exponential
+     * excess is integrated over the gap in closed form.
+     */
+    public static double developingFrictionDrop_kPa(double lengthMm, double idMm, double flowLps) {
+        double g = frictionDrop_kPa(1.0, idMm, flowLps);
+        if (lengthMm <= 0.0 || g == 0.0) {
+            return 0.0;
+        }
+        double decayMm = DEV_LENGTH_D * idMm;
+        return g * (lengthMm + DEV_EXCESS * decayMm * (1.0 - Math.exp(-lengthMm / decayMm)));
+    }
+
+    /**
+     * Static pressure regained (kPa) where a distribution header slows from
+     * {@code flowBeforeLps} to {@code flowAfterLps} across a row.
+     */
+    public static double pressureRecovery_kPa(double idMm, double flowBeforeLps, double flowAfterLps) {
+        double D = idMm / 1000.0;
+        if (D <= 0.0) {
+            return 0.0;
+        }
+        double area = Math.PI * D * D / 4.0;
+        double v1 = flowBeforeLps / 1000.0 / area;
+        double v2 = flowAfterLps / 1000.0 / area;
+        return REGAIN * RHO * (v1 * v1 - v2 * v2) / 2.0 / 1000.0;
+    }
+
+    /**
+     * Pressure change (kPa) across a row of a distribution header from a
+     * momentum balance: the jet leaves without axial momentum and the mixing
+     * loss of the deceleration is charged against the ideal regain, leaving
+     * {@code rho * v2 * (v1 - v2)}.
+     */
+    public static double momentumRecovery_kPa(double idMm, double flowBeforeLps, double flowAfterLps) {
+        double D = idMm / 1000.0;
+        if (D <= 0.0) {
+            return 0.0;
+        }
+        double area = Math.PI * D * D / 4.0;
+        double v1 = flowBeforeLps / 1000.0 / area;
+        double v2 = flowAfterLps / 1000.0 / area;
+        return RHO * v2 * (v1 - v2) / 1000.0;
+    }
+
+    /**
+     * Static pressure drop (kPa) across a row of a collecting header, where
+     * inflow without axial momentum accelerates the header flow from
+     * {@code flowAfterLps} to {@code flowBeforeLps} on the outlet side: a
+     * momentum balance gives {@code rho * (v1^2 - v2^2)}.
+     */
+    public static double accelerationDrop_kPa(double idMm, double flowBeforeLps, double flowAfterLps) {
+        double D = idMm / 1000.0;
+        if (D <= 0.0) {
+            return 0.0;
+        }
+        double area = Math.PI * D * D / 4.0;
+        double v1 = flowBeforeLps / 1000.0 / area;
+        double v2 = flowAfterLps / 1000.0 / area;
+        return RHO * (v1 * v1 - v2 * v2) / 1000.0;
+    }
+
+    /** Compute Reynolds number for given flow parameters. */
+    public static double computeReynolds(FlowParameters p) {
+        double area = Math.PI * Math.pow(p.pipeDiameterMm() / 1000.0, 2) / 4.0;
+        double v = p.flowLps() / 1000.0 / area;
+        return 1000.0 * v * (p.pipeDiameterMm() / 1000.0) / 0.001;
+    }
+
+    /**
+     * Compute per-row flow for a {@link HoleLayout} using the provided header pressure
+     * (suction, or supply pressure for a pressure header).
+     * Holes sharing a row index contribute to one aggregated row flow.
+     */
+    public static List<Double> rowFlows(HoleLayout layout, FlowParameters p, double headerKPa) {
+        RowKernel kernel = RowKernel.compile(layout, p);
+        double[] qh = new double[kernel.rowCount()];
+        kernel.rowFlows(headerKPa, qh);
+
+        List<Double> flows = new ArrayList<>();
+        for (double q : qh) {
+            flows.add(q);
+        }
+        return flows;
+    }
+
+    /**
+     * Find the suction pressure between {@code pMin} and {@code pMax} (kPa,
+     * {@code pMin < pMax}) that balances total row flow with the target flow rate.
+     *
+     * @throws DesignNotConvergedException if no suction in the bracket passes the flow
+     */
+    public static double findRequiredSuctionKPa(HoleLayout layout, FlowParameters p,
+                                                double pMin, double pMax) {
+        if (p.headerType() != HeaderType.SUCTION) {
+            throw new IllegalArgumentException("not a suction header: " + p.headerType());
+        }
+        if (!(pMin < pMax)) {
+            throw new IllegalArgumentException("empty suction bracket: " + pMin + " to " + pMax);
+        }
+        return RowKernel.compile(layout, p).solveSuctionKPa(pMin, pMax);
+    }
+
+    /**
+     * Find the header pressure that balances total row flow with the target flow rate:
+     * suction for a suction header, inlet supply pressure for a pressure header.
+     */
+    public static double findHeaderPressureKPa(HoleLayout layout, FlowParameters p) {
+        return RowKernel.compile(layout, p).solveHeaderKPa();
+    }
+
+    /** Return uniformity error (%CV) = 100*σ/μ across rows. */
+    public static double computeUniformityError(HoleLayout layout, FlowParameters p) {
+        return computeUniformityError(layout, p, Fidelity.FAST);
+    }
+
+    /** Uniformity error (%CV) across rows in the given model fidelity. */
+    public static double computeUniformityError(HoleLayout layout, FlowParameters p, Fidelity fidelity) {
+        RowKernel kernel = RowKernel.compile(layout, p, fidelity);
+        double headerKPa = kernel.solveHeaderKPa();
+        double[] flows = new double[kernel.rowCount()];
+        kernel.rowFlows(headerKPa, flows);
+        return RowKernel.uniformityPct(flows, flows.length);
+    }
+
+    /** Alias for {@link #computeUniformityError(HoleLayout, FlowParameters)}. */
+    public static double CV(HoleLayout layout, FlowParameters p) {
+        return computeUniformityError(layout, p);
+    }
+
+    // balanceSupplyPressure() removed
+}
@@ -0,0 +1,46 @@
+package org.example.flowmod.engine;
+
+/**
+ * Solved per-row state along a header, for plotting.
+ *
+ * @param positionsMm axial position of each row, ascending
+ * @param flowsLps    discharge of each row
+ * @param pressuresKPa header pressure arriving at each row
+ */
+public record HeaderProfile(double[] positionsMm, double[] flowsLps, double[] pressuresKPa) {
+
+    public HeaderProfile {
+        if (positionsMm.length != flowsLps.length || positionsMm.length != pressuresKPa.length) {
+            throw new IllegalArgumentException("profile arrays differ in length");
+        }
+    }
+
+    /**
+     * Solve {@code layout} at its operating point in the fast model, the one
+     * {@link FlowPhysics#computeUniformityError(HoleLayout, FlowParameters)} uses.
+     *
+     * @throws DesignNotConvergedException if the header pressure cannot be solved
+     */
+    public static HeaderProfile solve(HoleLayout layout, FlowParameters p) {
+        RowKernel kernel = RowKernel.compile(layout, p);
+        int n = kernel.rowCount();
+        double[] flows = new double[n];
+        kernel.rowFlows(kernel.solveHeaderKPa(), flows);
+        double[] positions = new double[n];
+        double[] pressures = new double[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = kernel.rowPosMm(i);
+            pressures[i] = kernel.rowPressureKPa(i);
+        }
+        return new HeaderProfile(positions, flows, pressures);
+    }
+
+    public int rowCount() {
+        return positionsMm.length;
+    }
+
+    /** Uniformity error (%CV) of the row flows. */
+    public double uniformityPct() {
+        return RowKernel.uniformityPct(flowsLps, flowsLps.length);
+    }
+}
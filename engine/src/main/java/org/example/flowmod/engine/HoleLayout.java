@@ -11,9 +11,10 @@ public class HoleLayout {
     private final List<HoleSpec> holes = new ArrayList<>();
 
     /**
-     * Construct a layout with uniformly spaced rows at the provided positions.
-     * The spacing between the first two positions is used as the nominal grid
-     * spacing for all holes.
+     * Construct a layout with one row at each of the provided positions.
+     * The spacing between the first two positions is recorded as the nominal
+     * grid spacing; each hole keeps its own axial position, so the rows need
+     * not be uniform.
      */
     public static HoleLayout withRows(List<Double> positions, double holeDiameterMm) {
         HoleLayout layout = new HoleLayout();
@@ -22,7 +23,7 @@ public class HoleLayout {
         }
         double spacing = positions.size() > 1 ? positions.get(1) - positions.get(0) : positions.get(0);
         for (int i = 0; i < positions.size(); i++) {
-            layout.addHole(new HoleSpec(i, holeDiameterMm, 0.0, spacing));
+            layout.addHole(new HoleSpec(i, holeDiameterMm, 0.0, spacing, positions.get(i)));
         }
         return layout;
     }
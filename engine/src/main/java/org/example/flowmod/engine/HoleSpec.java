@@ -0,0 +1,29 @@
+package org.example.flowmod.engine;
+
+/**
+ * Specification for a single row hole.
+ *
+ * @param rowIndex        zero-based row index along the header
+ * @param holeDiameterMm  drill diameter in millimetres
+ * @param angleDeg        angle of the hole in degrees
+ * @param spacingMm       nominal distance between rows in millimetres
+ * @param axialPosMm      axial position of the hole centre along the header, millimetres
+ */
+public record HoleSpec(int rowIndex,
+                       double holeDiameterMm,
+                       double angleDeg,
+                       double spacingMm,
+                       double axialPosMm) {
+
+    /**
+     * Hole on the uniform grid, positioned at {@code rowIndex * spacingMm}.
+     */
+    public HoleSpec(int rowIndex, double holeDiameterMm, double angleDeg, double spacingMm) {
+        this(rowIndex, holeDiameterMm, angleDeg, spacingMm, rowIndex * spacingMm);
+    }
+
+    /** Copy of this hole drilled with another diameter. */
+    public HoleSpec withDiameter(double diameterMm) {
+        return new HoleSpec(rowIndex, diameterMm, angleDeg, spacingMm, axialPosMm);
+    }
+}
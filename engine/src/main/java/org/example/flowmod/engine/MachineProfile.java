@@ -0,0 +1,22 @@
+package org.example.flowmod.engine;
+
+/**
+ * Timing characteristics of the CNC drill used to estimate machining time.
+ *
+ * @param toolChangeSeconds   time for one tool change
+ * @param rapidMmPerSec       rapid traverse speed between holes
+ * @param drillSecondsPerHole plunge, drill and retract time for one hole
+ */
+public record MachineProfile(double toolChangeSeconds,
+                             double rapidMmPerSec,
+                             double drillSecondsPerHole) {
+
+    /** Typical sheet drilling centre. */
+    public static final MachineProfile DEFAULT = new MachineProfile(20.0, 200.0, 4.0);
+
+    public MachineProfile {
+        if (toolChangeSeconds < 0 || rapidMmPerSec <= 0 || drillSecondsPerHole < 0) {
+            throw new IllegalArgumentException("invalid machine profile");
+        }
+    }
+}
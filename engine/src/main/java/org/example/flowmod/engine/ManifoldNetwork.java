@@ -0,0 +1,152 @@
+package org.example.flowmod.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pressure headers fed in series from one trunk line.
+ * <p>
+ * The trunk runs from its inlet through one junction per branch; each
+ * {@link Branch} names the trunk length from the previous junction (or the
+ * inlet) and the header drawn off at its junction. The split of the trunk
+ * flow between headers is found by {@link #solve()}, so headers near the
+ * inlet that see more pressure take a larger share. Only distribution
+ * (pressure) headers are modelled; a network of suction headers is rejected.
+ */
+public final class ManifoldNetwork {
+
+    /**
+     * One header and the trunk segment leading to its junction.
+     *
+     * @param trunkSegmentMm   trunk length from the previous junction or the inlet
+     * @param headerDiameterMm internal diameter of the header
+     * @param headerLenMm      header length
+     * @param layout           drilling of the header
+     */
+    public record Branch(double trunkSegmentMm, double headerDiameterMm, double headerLenMm, HoleLayout layout) {
+
+        public Branch {
+            if (trunkSegmentMm < 0 || headerDiameterMm <= 0 || headerLenMm <= 0) {
+                throw new IllegalArgumentException("invalid branch geometry");
+            }
+            if (layout == null || layout.getHoles().isEmpty()) {
+                throw new IllegalArgumentException("branch layout must have holes");
+            }
+        }
+
+        /** Header parameters for a kernel; the flow is only a nominal design value. */
+        FlowParameters params(double flowLps) {
+            return new FlowParameters(headerDiameterMm, flowLps, headerLenMm, HeaderType.PRESSURE);
+        }
+
+        public Branch withLayout(HoleLayout newLayout) {
+            return new Branch(trunkSegmentMm, headerDiameterMm, headerLenMm, newLayout);
+        }
+    }
+
+    /**
+     * Converged state of the network.
+     *
+     * @param inletKPa       pressure required at the trunk inlet
+     * @param junctionKPa    trunk pressure at each junction, i.e. each header's inlet pressure
+     * @param headerFlowsLps flow taken by each header
+     * @param rowFlowsLps    per-row discharge of each header
+     * @param iterations     Newton iterations used
+     */
+    public record Solution(double inletKPa,
+                           double[] junctionKPa,
+                           double[] headerFlowsLps,
+                           List<double[]> rowFlowsLps,
+                           int iterations) {
+
+        /** Uniformity error (%CV) over every row of every header. */
+        public double uniformityPct() {
+            int n = 0;
+            for (double[] rows : rowFlowsLps) {
+                n += rows.length;
+            }
+            double[] all = new double[n];
+            int i = 0;
+            for (double[] rows : rowFlowsLps) {
+                System.arraycopy(rows, 0, all, i, rows.length);
+                i += rows.length;
+            }
+            return RowKernel.uniformityPct(all, n);
+        }
+    }
+
+    private final double trunkDiameterMm;
+    private final double inletFlowLps;
+    private final List<Branch> branches;
+
+    /**
+     * Network of pressure headers.
+     *
+     * @param trunkDiameterMm internal diameter of the trunk
+     * @param inletFlowLps    total flow fed into the trunk
+     * @param branches        headers in order along the trunk from the inlet
+     */
+    public ManifoldNetwork(double trunkDiameterMm, double inletFlowLps, List<Branch> branches) {
+        this(trunkDiameterMm, inletFlowLps, HeaderType.PRESSURE, branches);
+    }
+
+    /**
+     * Network of headers of the given type.
+     *
+     * @param trunkDiameterMm internal diameter of the trunk
+     * @param inletFlowLps    total flow fed into the trunk
+     * @param headerType      type of every header; only {@link HeaderType#PRESSURE} is supported
+     * @param branches        headers in order along the trunk from the inlet
+     * @throws IllegalArgumentException for {@link HeaderType#SUCTION}: the solver has no
+     *                                  collecting trunk, whose pressure falls towards the outlet
+     */
+    public ManifoldNetwork(double trunkDiameterMm, double inletFlowLps, HeaderType headerType,
+                           List<Branch> branches) {
+        if (headerType != HeaderType.PRESSURE) {
+            throw new IllegalArgumentException("manifold networks support pressure headers only, not "
+                    + headerType);
+        }
+        if (trunkDiameterMm <= 0 || inletFlowLps <= 0) {
+            throw new IllegalArgumentException("trunk diameter and flow must be positive");
+        }
+        if (branches == null || branches.isEmpty()) {
+            throw new IllegalArgumentException("network needs at least one branch");
+        }
+        this.trunkDiameterMm = trunkDiameterMm;
+        this.inletFlowLps = inletFlowLps;
+        this.branches = List.copyOf(branches);
+    }
+
+    public double trunkDiameterMm() {
+        return trunkDiameterMm;
+    }
+
+    public double inletFlowLps() {
+        return inletFlowLps;
+    }
+
+    public List<Branch> branches() {
+        return branches;
+    }
+
+    /** Same trunk and branch geometry with new header drillings, in branch order. */
+    public ManifoldNetwork withLayouts(List<HoleLayout> layouts) {
+        if (layouts.size() != branches.size()) {
+            throw new IllegalArgumentException("expected " + branches.size() + " layouts");
+        }
+        List<Branch> next = new ArrayList<>();
+        for (int i = 0; i < branches.size(); i++) {
+            next.add(branches.get(i).withLayout(layouts.get(i)));
+        }
+        return new ManifoldNetwork(trunkDiameterMm, inletFlowLps, next);
+    }
+
+    /**
+     * Solve for the trunk pressures and the flow split between headers.
+     *
+     * @throws DesignNotConvergedException if Newton's method does not converge
+     */
+    public Solution solve() {
+        return new ManifoldSolver(this).solve();
+    }
+}
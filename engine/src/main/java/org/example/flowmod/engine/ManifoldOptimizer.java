@@ -0,0 +1,139 @@
+package org.example.flowmod.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Drills every header of a {@link ManifoldNetwork} together so that the
+ * rows of the whole plant, not just of each header, meet
+ * {@link DesignRules#UNIFORMITY_TARGET_PCT}.
+ * <p>
+ * Like {@link DrillUtils#taperWithRules}, every hole starts at the largest
+ * drill and the row delivering most flow anywhere in the plant is shrunk one
+ * size at a time. Shrinking a row only changes its open area, so the network
+ * is re-solved from the previous solution and Newton typically needs one or
+ * two iterations per step.
+ */
+public final class ManifoldOptimizer {
+
+    /**
+     * Outcome of an optimization.
+     *
+     * @param network  the network with the tapered header drillings
+     * @param solution its converged state
+     * @param steps    number of single-size reductions applied
+     */
+    public record Result(ManifoldNetwork network, ManifoldNetwork.Solution solution, int steps) {
+    }
+
+    private final List<Double> sizesDesc;
+
+    public ManifoldOptimizer(DesignRules rules) {
+        List<Double> drills = rules.allowableDrillSizesMm();
+        if (drills == null || drills.isEmpty()) {
+            throw new IllegalArgumentException("no drill sizes");
+        }
+        sizesDesc = new ArrayList<>(drills);
+        sizesDesc.sort(Comparator.reverseOrder());
+    }
+
+    /**
+     * Taper the headers of {@code network}, keeping their row positions.
+     *
+     * @throws DesignNotConvergedException if the row that needs shrinking is
+     *                                     already at the smallest drill
+     */
+    public Result optimize(ManifoldNetwork network) {
+        List<ManifoldNetwork.Branch> branches = network.branches();
+        int m = branches.size();
+        // per branch: holes (rebuilt at the end) and the current drill index of each hole
+        List<List<HoleSpec>> holes = new ArrayList<>(m);
+        List<int[]> sizeIdx = new ArrayList<>(m);
+        List<int[]> rowStart = new ArrayList<>(m);
+        List<HoleLayout> blank = new ArrayList<>(m);
+        for (ManifoldNetwork.Branch b : branches) {
+            List<HoleSpec> hs = new ArrayList<>();
+            for (HoleSpec h : b.layout().getHoles()) {
+                hs.add(h.withDiameter(sizesDesc.get(0)));
+            }
+            holes.add(hs);
+            sizeIdx.add(new int[hs.size()]);
+            rowStart.add(rowStarts(hs));
+            blank.add(toLayout(hs));
+        }
+
+        ManifoldSolver solver = new ManifoldSolver(network.withLayouts(blank));
+        int steps = 0;
+        while (true) {
+            Cancellation.check();
+            ManifoldNetwork.Solution s = solver.solve();
+            if (s.uniformityPct() <= DesignRules.UNIFORMITY_TARGET_PCT) {
+                List<HoleLayout> layouts = new ArrayList<>(m);
+                for (List<HoleSpec> hs : holes) {
+                    layouts.add(toLayout(hs));
+                }
+                return new Result(network.withLayouts(layouts), s, steps);
+            }
+
+            int branch = -1;
+            int row = -1;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < m; k++) {
+                double[] q = s.rowFlowsLps().get(k);
+                for (int i = 0; i < q.length; i++) {
+                    if (q[i] > max) {
+                        max = q[i];
+                        branch = k;
+                        row = i;
+                    }
+                }
+            }
+
+            // shrink the largest hole of that row
+            int[] starts = rowStart.get(branch);
+            int[] idx = sizeIdx.get(branch);
+            int end = row + 1 < starts.length ? starts[row + 1] : idx.length;
+            int hole = starts[row];
+            for (int j = starts[row] + 1; j < end; j++) {
+                if (idx[j] < idx[hole]) {
+                    hole = j;
+                }
+            }
+            if (idx[hole] == sizesDesc.size() - 1) {
+                throw new DesignNotConvergedException(String.format(
+                        "Cannot meet plant-wide spec: header %d row %d is already at the smallest drill",
+                        branch, row));
+            }
+            idx[hole]++;
+            List<HoleSpec> hs = holes.get(branch);
+            hs.set(hole, hs.get(hole).withDiameter(sizesDesc.get(idx[hole])));
+            double area = 0.0;
+            for (int j = starts[row]; j < end; j++) {
+                area += RowKernel.holeAreaM2(hs.get(j).holeDiameterMm());
+            }
+            solver.kernel(branch).setRowAreaM2(row, area);
+            steps++;
+        }
+    }
+
+    /** Index of the first hole of each row, rows being runs of equal row index. */
+    private static int[] rowStarts(List<HoleSpec> holes) {
+        int[] starts = new int[holes.size()];
+        int rows = 0;
+        for (int i = 0; i < holes.size(); i++) {
+            if (i == 0 || holes.get(i).rowIndex() != holes.get(i - 1).rowIndex()) {
+                starts[rows++] = i;
+            }
+        }
+        return java.util.Arrays.copyOf(starts, rows);
+    }
+
+    private static HoleLayout toLayout(List<HoleSpec> holes) {
+        HoleLayout layout = new HoleLayout();
+        for (HoleSpec h : holes) {
+            layout.addHole(h);
+        }
+        return layout;
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.flowmod.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Newton solver for a {@link ManifoldNetwork}.
+ * <p>
+ * Junction {@code k} carries three unknowns, in this order: its trunk
+ * pressure {@code P}, the header flow {@code F} and the trunk flow {@code S}
+ * leaving it downstream. The equations are ordered per junction as
+ * <pre>
+ * F_k - H_k(P_k, F_k)                    = 0   header discharge at its inlet pressure
+ * S_k - S_(k-1) + F_k                    = 0   mass balance, S_(-1) = inlet flow
+ * P_(k+1) - P_k + friction(L_(k+1), S_k) = 0   trunk segment; S_last = 0 at the end
+ * </pre>
+ * so the Jacobian has two sub- and one super-diagonal. Each iteration marches
+ * every header three times (value and two difference quotients) and solves
+ * the banded system, so its cost is linear in the total row count. Header
+ * row areas can be changed through {@link #kernel(int)} between solves; the
+ * last solution is the starting point of the next one.
+ */
+final class ManifoldSolver {
+    private static final int MAX_ITERATIONS = 50;
+    private static final double TOLERANCE = 1e-10;
+
+    private final int m;
+    private final double trunkDiameterMm;
+    private final double inletFlowLps;
+    private final double[] segmentMm;
+    private final RowKernel[] kernels;
+    private final double[] x;
+    private final double[] r;
+    private final double[] step;
+    private final double[] trial;
+    private final double[] trialR;
+    private final double[] hP;
+    private final double[] hF;
+    private final BandedSystem jacobian;
+
+    ManifoldSolver(ManifoldNetwork network) {
+        List<ManifoldNetwork.Branch> branches = network.branches();
+        this.m = branches.size();
+        this.trunkDiameterMm = network.trunkDiameterMm();
+        this.inletFlowLps = network.inletFlowLps();
+        this.segmentMm = new double[m];
+        this.kernels = new RowKernel[m];
+        double share = inletFlowLps / m;
+        for (int k = 0; k < m; k++) {
+            ManifoldNetwork.Branch b = branches.get(k);
+            segmentMm[k] = b.trunkSegmentMm();
+            kernels[k] = RowKernel.compile(b.layout(), b.params(share));
+        }
+        int n = 3 * m;
+        this.x = new double[n];
+        this.r = new double[n];
+        this.step = new double[n];
+        this.trial = new double[n];
+        this.trialR = new double[n];
+        this.hP = new double[m];
+        this.hF = new double[m];
+        this.jacobian = new BandedSystem(n, 2, 1);
+        initialGuess();
+    }
+
+    RowKernel kernel(int branch) {
+        return kernels[branch];
+    }
+
+    /**
+     * Even split with each header's inlet pressure set so its orifices pass
+     * that share ignoring friction.
+     */
+    private void initialGuess() {
+        double share = inletFlowLps / m;
+        for (int k = 0; k < m; k++) {
+            RowKernel kernel = kernels[k];
+            double area = 0.0;
+            for (int i = 0; i < kernel.rowCount(); i++) {
+                area += kernel.rowAreaM2(i);
+            }
+            double unit = FlowPhysics.orificeFlowFromAreaLps(area, 1.0);
+            double ratio = share / unit;
+            x[3 * k] = ratio * ratio;
+            x[3 * k + 1] = share;
+            x[3 * k + 2] = inletFlowLps - (k + 1) * share;
+        }
+    }
+
+    /**
+     * Newton iteration with a backtracking line search from the current state.
+     *
+     * @throws DesignNotConvergedException if the residual does not vanish
+     */
+    ManifoldNetwork.Solution solve() {
+        double norm = residual(x, r, true);
+        int it = 0;
+        while (norm > TOLERANCE) {
+            Cancellation.check();
+            if (++it > MAX_ITERATIONS) {
+                throw new DesignNotConvergedException(String.format(
+                        "Manifold did not converge (residual %.2e)", norm));
+            }
+            assemble();
+            for (int i = 0; i < step.length; i++) {
+                step[i] = -r[i];
+            }
+            try {
+                jacobian.solve(step);
+            } catch (ArithmeticException ex) {
+                throw new DesignNotConvergedException("Manifold Jacobian is singular");
+            }
+
+            double t = 1.0;
+            double next = Double.POSITIVE_INFINITY;
+            for (int halving = 0; halving < 20; halving++) {
+                for (int i = 0; i < x.length; i++) {
+                    trial[i] = x[i] + t * step[i];
+                }
+                next = residual(trial, trialR, false);
+                if (next < norm) {
+                    break;
+                }
+                t /= 2;
+            }
+            if (next >= norm) {
+                // typically a header starved down to where its orifices stop discharging
+                throw new DesignNotConvergedException(String.format(
+                        "Manifold solve stalled (residual %.2e)", norm));
+            }
+            System.arraycopy(trial, 0, x, 0, x.length);
+            norm = residual(x, r, true);
+        }
+        return snapshot(it);
+    }
+
+    /**
+     * Fill {@code out} with the residuals at {@code state} and return their
+     * scaled maximum norm; flows are measured relative to the inlet flow.
+     * With {@code derivatives} the header difference quotients are kept for
+     * {@link #assemble()}.
+     */
+    private double residual(double[] state, double[] out, boolean derivatives) {
+        double norm = 0.0;
+        for (int k = 0; k < m; k++) {
+            double p = state[3 * k];
+            double f = state[3 * k + 1];
+            double s = state[3 * k + 2];
+            double sBefore = k == 0 ? inletFlowLps : state[3 * k - 1];
+            RowKernel kernel = kernels[k];
+            double h = kernel.totalFlowLps(p, f);
+            if (derivatives) {
+                double dp = 1e-6 * Math.max(1.0, Math.abs(p));
+                double df = 1e-6 * Math.max(Math.abs(f), 1e-6 * inletFlowLps);
+                hP[k] = (kernel.totalFlowLps(p + dp, f) - h) / dp;
+                hF[k] = (kernel.totalFlowLps(p, f + df) - h) / df;
+            }
+            out[3 * k] = f - h;
+            out[3 * k + 1] = s - sBefore + f;
+            out[3 * k + 2] = k < m - 1
+                    ? state[3 * k + 3] - p + trunkFriction(segmentMm[k + 1], s)
+                    : s;
+            norm = Math.max(norm, Math.abs(out[3 * k]) / inletFlowLps);
+            norm = Math.max(norm, Math.abs(out[3 * k + 1]) / inletFlowLps);
+            norm = Math.max(norm, k < m - 1 ? Math.abs(out[3 * k + 2]) : Math.abs(s) / inletFlowLps);
+        }
+        return norm;
+    }
+
+    private void assemble() {
+        jacobian.clear();
+        for (int k = 0; k < m; k++) {
+            int pk = 3 * k;
+            int fk = pk + 1;
+            int sk = pk + 2;
+            jacobian.set(pk, pk, -hP[k]);
+            jacobian.set(pk, fk, 1.0 - hF[k]);
+
+            if (k > 0) {
+                jacobian.set(fk, sk - 3, -1.0);
+            }
+            jacobian.set(fk, fk, 1.0);
+            jacobian.set(fk, sk, 1.0);
+
+            if (k < m - 1) {
+                double s = x[sk];
+                double ds = 1e-6 * Math.max(Math.abs(s), 1e-6 * inletFlowLps);
+                double seg = segmentMm[k + 1];
+                jacobian.set(sk, pk, -1.0);
+                jacobian.set(sk, sk, (trunkFriction(seg, s + ds) - trunkFriction(seg, s - ds)) / (2 * ds));
+                jacobian.set(sk, sk + 1, 1.0);
+            } else {
+                jacobian.set(sk, sk, 1.0);
+            }
+        }
+    }
+
+    /** Signed friction drop along a trunk segment carrying {@code flowLps}. */
+    private double trunkFriction(double lengthMm, double flowLps) {
+        return Math.signum(flowLps) * FlowPhysics.frictionDrop_kPa(lengthMm, trunkDiameterMm, Math.abs(flowLps));
+    }
+
+    private ManifoldNetwork.Solution snapshot(int iterations) {
+        double[] junction = new double[m];
+        double[] headers = new double[m];
+        List<double[]> rows = new ArrayList<>(m);
+        for (int k = 0; k < m; k++) {
+            junction[k] = x[3 * k];
+            headers[k] = x[3 * k + 1];
+            double[] q = new double[kernels[k].rowCount()];
+            kernels[k].rowFlows(junction[k], headers[k], q);
+            rows.add(q);
+        }
+        double inlet = junction[0] + trunkFriction(segmentMm[0], inletFlowLps);
+        return new ManifoldNetwork.Solution(inlet, junction, headers, List.copyOf(rows), iterations);
+    }
+}
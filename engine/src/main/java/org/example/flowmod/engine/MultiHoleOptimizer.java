@@ -0,0 +1,136 @@
+package org.example.flowmod.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Optimizer for headers drilled with several angled holes per row.
+ * <p>
+ * The number of rows is capped by {@link DesignRules#rowCount()}; extra open
+ * area comes from drilling up to {@link DesignRules#maxHolesPerRow()} holes
+ * evenly around the circumference. For each hole count per row, a
+ * {@link SpacingSearch} over the {@link DesignRules} pitch grid finds the
+ * coarsest pitch whose layout meets the uniformity target, tapering with
+ * {@link DrillUtils#taperFrom} so a row may mix neighbouring drill sizes.
+ * The coarsest pitch wins, and the smallest hole count among equals. Pitches
+ * that would need more rows than the cap are left out of the search; if every
+ * grid pitch does, the pitch that just fits the cap is tried instead.
+ */
+public class MultiHoleOptimizer extends GraduatedHoleOptimizer {
+
+    private final DesignRules designRules;
+
+    public MultiHoleOptimizer(DesignRules rules, DrillSizePolicy policy, FlowPhysics physics) {
+        super(policy, physics);
+        this.designRules = rules;
+    }
+
+    @Override
+    public HoleLayout optimize(FlowParameters params) {
+        List<Double> drillSet = designRules.allowableDrillSizesMm();
+        if (drillSet == null || drillSet.isEmpty()) {
+            drillSet = List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0);
+        }
+        List<Double> sizes = new ArrayList<>(drillSet);
+        sizes.sort(Comparator.reverseOrder());
+
+        int maxRows = designRules.rowCount();
+        int maxHoles = Math.max(1, designRules.maxHolesPerRow());
+        // keep at least half the circumference as ligament between holes
+        double usableMm = Math.PI * params.pipeDiameterMm() / 2.0;
+        double finest = finestPitch(params.headerLenMm(), maxRows);
+        double step = designRules.pitchIncrementMm();
+
+        SpacingSearch.Result best = null;
+        int bestHoles = 0;
+        for (int k = 1; k <= maxHoles; k++) {
+            int first = 0;
+            while (first < sizes.size() && k * sizes.get(first) > usableMm) {
+                first++;
+            }
+            if (first == sizes.size()) {
+                break;
+            }
+            // a larger hole count only wins at a strictly coarser pitch
+            double from = best == null ? finest : best.pitchMm() + step;
+            if (from > Math.max(finest, designRules.maxPitchMm()) + 1e-9) {
+                break;
+            }
+            double to = Math.max(from, designRules.maxPitchMm());
+            int holes = k;
+            double diameter = sizes.get(first);
+            try {
+                best = new SpacingSearch(from, to, step, designRules.verificationFidelity())
+                        .search(params, sizes.subList(first, sizes.size()),
+                                dx -> blank(params.headerLenMm(), dx, maxRows, holes, diameter));
+                bestHoles = k;
+            } catch (DesignNotConvergedException ex) {
+                // no pitch in range works with k holes per row; try more
+            }
+        }
+        if (best == null) {
+            throw new DesignNotConvergedException("Cannot meet spec with " + maxRows
+                    + " rows of up to " + maxHoles + " holes");
+        }
+        return spreadAround(best.layout(), bestHoles, best.pitchMm());
+    }
+
+    /**
+     * Finest pitch of the rule grid that needs at most {@code maxRows} rows,
+     * or the pitch that just fills {@code maxRows} rows, rounded up to the
+     * increment, when the whole grid needs more.
+     */
+    private double finestPitch(double headerLenMm, int maxRows) {
+        double min = designRules.minPitchMm();
+        double step = designRules.pitchIncrementMm();
+        int steps = (int) Math.floor((designRules.maxPitchMm() - min) / step + 1e-9);
+        for (int k = 0; k <= steps; k++) {
+            double dx = min + k * step;
+            if (DrillUtils.generateCandidateRows(headerLenMm, dx).size() <= maxRows) {
+                return dx;
+            }
+        }
+        return Math.ceil(headerLenMm / maxRows / step - 1e-9) * step;
+    }
+
+    /** {@code holes} holes of {@code diameterMm} per row at pitch {@code dx}; {@code null} if no row fits. */
+    private static HoleLayout blank(double headerLenMm, double dx, int maxRows, int holes, double diameterMm) {
+        int rows = DrillUtils.generateCandidateRows(headerLenMm, dx).size();
+        if (rows == 0 || rows > maxRows) {
+            return null;
+        }
+        HoleLayout layout = new HoleLayout();
+        for (int r = 0; r < rows; r++) {
+            for (int j = 0; j < holes; j++) {
+                layout.addHole(new HoleSpec(r, diameterMm, 360.0 * j / holes, dx));
+            }
+        }
+        return layout;
+    }
+
+    /** The tapered layout with each row's holes largest first, evenly spaced around the pipe. */
+    private static HoleLayout spreadAround(HoleLayout tapered, int maxHoles, double dx) {
+        List<HoleSpec> holes = tapered.getHoles();
+        HoleLayout layout = new HoleLayout();
+        double[] row = new double[maxHoles];
+        int i = 0;
+        while (i < holes.size()) {
+            int index = holes.get(i).rowIndex();
+            int n = 0;
+            while (i < holes.size() && holes.get(i).rowIndex() == index) {
+                row[n++] = holes.get(i++).holeDiameterMm();
+            }
+            Arrays.sort(row, 0, n);
+            for (int j = 0; j < n; j++) {
+                layout.addHole(new HoleSpec(index, row[n - 1 - j], 360.0 * j / n, dx));
+            }
+        }
+        return layout;
+    }
+
+    public DesignRules getDesignRules() {
+        return designRules;
+    }
+}
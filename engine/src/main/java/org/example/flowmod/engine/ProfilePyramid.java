@@ -0,0 +1,151 @@
+package org.example.flowmod.engine;
+
+import java.util.Arrays;
+
+/**
+ * Min/max pyramid over one series of a {@link HeaderProfile}, for drawing
+ * very long headers at any zoom.
+ * <p>
+ * Level {@code k} holds the minimum and maximum of each run of {@code 2^k}
+ * consecutive rows, so the extremes of any row range are found by combining
+ * at most two entries per level. {@link #downsample} reduces the rows inside
+ * a window to one min/max pair per pixel bucket in
+ * {@code O(buckets * log rows)}, whatever the window's width; building the
+ * pyramid is linear and is meant to happen once per solve, off the UI thread.
+ * Instances are immutable.
+ */
+public final class ProfilePyramid {
+    private final double[] xs;
+    private final double[][] mins;
+    private final double[][] maxs;
+
+    /**
+     * @param xs     row positions, ascending
+     * @param values one value per row
+     */
+    public ProfilePyramid(double[] xs, double[] values) {
+        if (xs.length != values.length || xs.length == 0) {
+            throw new IllegalArgumentException("need one value per position and at least one row");
+        }
+        for (int i = 1; i < xs.length; i++) {
+            if (xs[i] < xs[i - 1]) {
+                throw new IllegalArgumentException("positions must be ascending");
+            }
+        }
+        this.xs = xs.clone();
+        int levels = 1;
+        for (int len = xs.length; len > 1; len = (len + 1) / 2) {
+            levels++;
+        }
+        mins = new double[levels][];
+        maxs = new double[levels][];
+        mins[0] = values.clone();
+        maxs[0] = mins[0];
+        for (int k = 1; k < levels; k++) {
+            double[] lo = mins[k - 1];
+            double[] hi = maxs[k - 1];
+            int len = (lo.length + 1) / 2;
+            mins[k] = new double[len];
+            maxs[k] = new double[len];
+            for (int i = 0; i < len; i++) {
+                int a = 2 * i;
+                int b = Math.min(a + 1, lo.length - 1);
+                mins[k][i] = Math.min(lo[a], lo[b]);
+                maxs[k][i] = Math.max(hi[a], hi[b]);
+            }
+        }
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public double firstX() {
+        return xs[0];
+    }
+
+    public double lastX() {
+        return xs[xs.length - 1];
+    }
+
+    /** Smallest value of the whole series. */
+    public double min() {
+        return mins[mins.length - 1][0];
+    }
+
+    /** Largest value of the whole series. */
+    public double max() {
+        return maxs[maxs.length - 1][0];
+    }
+
+    /**
+     * Split {@code [x0, x1]} into {@code outMin.length} equal buckets and store
+     * the extremes of the rows in each; buckets without a row get
+     * {@link Double#NaN}. Buckets are half-open except the last, which also
+     * takes rows at {@code x1}.
+     */
+    public void downsample(double x0, double x1, double[] outMin, double[] outMax) {
+        int buckets = outMin.length;
+        if (outMax.length != buckets) {
+            throw new IllegalArgumentException("min and max buckets differ in length");
+        }
+        double width = (x1 - x0) / buckets;
+        int lo = lowerBound(x0);
+        for (int b = 0; b < buckets; b++) {
+            int hi = b == buckets - 1 ? upperBound(x1) : lowerBound(x0 + (b + 1) * width);
+            if (hi > lo) {
+                rangeExtremes(lo, hi, outMin, outMax, b);
+            } else {
+                outMin[b] = Double.NaN;
+                outMax[b] = Double.NaN;
+            }
+            lo = Math.max(lo, hi);
+        }
+    }
+
+    /** Index of the first row at or after {@code x}. */
+    private int lowerBound(double x) {
+        int i = Arrays.binarySearch(xs, x);
+        if (i < 0) {
+            return -i - 1;
+        }
+        while (i > 0 && xs[i - 1] == x) {
+            i--;
+        }
+        return i;
+    }
+
+    /** Index of the first row after {@code x}. */
+    private int upperBound(double x) {
+        int i = Arrays.binarySearch(xs, x);
+        if (i < 0) {
+            return -i - 1;
+        }
+        while (i < xs.length && xs[i] == x) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Extremes of rows {@code [lo, hi)}, written to bucket {@code b}. */
+    private void rangeExtremes(int lo, int hi, double[] outMin, double[] outMax, int b) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; lo < hi; k++) {
+            if ((lo & 1) != 0) {
+                min = Math.min(min, mins[k][lo]);
+                max = Math.max(max, maxs[k][lo]);
+                lo++;
+            }
+            if ((hi & 1) != 0) {
+                hi--;
+                min = Math.min(min, mins[k][hi]);
+                max = Math.max(max, maxs[k][hi]);
+            }
+            lo >>= 1;
+            hi >>= 1;
+        }
+        outMin[b] = min;
+        outMax[b] = max;
+    }
+}
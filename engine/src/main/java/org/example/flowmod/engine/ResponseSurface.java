@@ -0,0 +1,191 @@
+package org.example.flowmod.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Trilinear surrogate of optimizer results over pipe diameter, flow and
+ * header length, read from a {@link SweepJournal}.
+ * <p>
+ * The surface is meant for live feedback while parameters are edited; the
+ * exact design must still be run to confirm a prediction. Points the
+ * optimizer could not design count as infeasible, and a query is predicted
+ * infeasible when those points carry more than half of its interpolation
+ * weight.
+ */
+public final class ResponseSurface {
+
+    /**
+     * Interpolated optimizer outcome.
+     *
+     * @param uniformityPct predicted uniformity error
+     * @param pitchMm       predicted row pitch
+     * @param drillCount    predicted number of distinct drill sizes
+     */
+    public record Prediction(double uniformityPct, double pitchMm, double drillCount) {
+    }
+
+    private final Map<HeaderType, Grid> grids;
+
+    private ResponseSurface(Map<HeaderType, Grid> grids) {
+        this.grids = grids;
+    }
+
+    /**
+     * Design every point of {@code grid} missing from {@code journal} with
+     * {@code runner}, then load the surface from the journal.
+     */
+    public static ResponseSurface build(FlowParameterGrid grid, SweepRunner runner, Path journal)
+            throws IOException, InterruptedException {
+        try (SweepJournal j = SweepJournal.open(journal, 64, 1000)) {
+            runner.run(grid, j);
+        }
+        return fromJournal(journal);
+    }
+
+    /**
+     * Load a surface from a sweep journal. The axes are the distinct values
+     * journalled for each header type; grid points missing from the journal
+     * are treated like failed designs.
+     */
+    public static ResponseSurface fromJournal(Path journal) throws IOException {
+        List<SweepJournal.Entry> entries = SweepJournal.read(journal);
+        Map<HeaderType, Grid> grids = new EnumMap<>(HeaderType.class);
+        for (HeaderType type : HeaderType.values()) {
+            List<SweepJournal.Entry> ofType = entries.stream()
+                    .filter(e -> e.params().headerType() == type)
+                    .toList();
+            if (!ofType.isEmpty()) {
+                grids.put(type, new Grid(ofType));
+            }
+        }
+        return new ResponseSurface(grids);
+    }
+
+    /** Whether any points were loaded for this header type. */
+    public boolean covers(HeaderType type) {
+        return grids.containsKey(type);
+    }
+
+    /**
+     * Predicted outcome for {@code p}, or empty when {@code p} lies outside the
+     * journalled range or is predicted infeasible.
+     */
+    public Optional<Prediction> predict(FlowParameters p) {
+        Grid g = grids.get(p.headerType());
+        return g == null ? Optional.empty() : g.predict(p);
+    }
+
+    /** Values on one header type's grid, NaN where no design exists. */
+    private static final class Grid {
+        private final double[] dias;
+        private final double[] flows;
+        private final double[] lens;
+        private final double[] cv;
+        private final double[] pitch;
+        private final double[] drills;
+
+        Grid(List<SweepJournal.Entry> entries) {
+            TreeSet<Double> d = new TreeSet<>();
+            TreeSet<Double> f = new TreeSet<>();
+            TreeSet<Double> l = new TreeSet<>();
+            for (SweepJournal.Entry e : entries) {
+                d.add(e.params().pipeDiameterMm());
+                f.add(e.params().flowLps());
+                l.add(e.params().headerLenMm());
+            }
+            dias = toArray(d);
+            flows = toArray(f);
+            lens = toArray(l);
+            int size = dias.length * flows.length * lens.length;
+            cv = new double[size];
+            pitch = new double[size];
+            drills = new double[size];
+            Arrays.fill(cv, Double.NaN);
+            Arrays.fill(pitch, Double.NaN);
+            Arrays.fill(drills, Double.NaN);
+            for (SweepJournal.Entry e : entries) {
+                if (!e.converged()) {
+                    continue;
+                }
+                FlowParameters p = e.params();
+                int i = index(Arrays.binarySearch(dias, p.pipeDiameterMm()),
+                        Arrays.binarySearch(flows, p.flowLps()),
+                        Arrays.binarySearch(lens, p.headerLenMm()));
+                cv[i] = e.uniformityPct();
+                pitch[i] = e.pitchMm();
+                drills[i] = e.diametersMm().stream().distinct().count();
+            }
+        }
+
+        Optional<Prediction> predict(FlowParameters p) {
+            int d0 = lower(dias, p.pipeDiameterMm());
+            int f0 = lower(flows, p.flowLps());
+            int l0 = lower(lens, p.headerLenMm());
+            if (d0 < 0 || f0 < 0 || l0 < 0) {
+                return Optional.empty();
+            }
+            double td = fraction(dias, d0, p.pipeDiameterMm());
+            double tf = fraction(flows, f0, p.flowLps());
+            double tl = fraction(lens, l0, p.headerLenMm());
+
+            double weight = 0.0;
+            double sumCv = 0.0;
+            double sumPitch = 0.0;
+            double sumDrills = 0.0;
+            for (int corner = 0; corner < 8; corner++) {
+                int bd = corner & 1;
+                int bf = (corner >> 1) & 1;
+                int bl = (corner >> 2) & 1;
+                double w = (bd == 1 ? td : 1 - td) * (bf == 1 ? tf : 1 - tf) * (bl == 1 ? tl : 1 - tl);
+                if (w == 0.0) {
+                    continue;
+                }
+                int i = index(Math.min(d0 + bd, dias.length - 1),
+                        Math.min(f0 + bf, flows.length - 1),
+                        Math.min(l0 + bl, lens.length - 1));
+                if (Double.isNaN(cv[i])) {
+                    continue;
+                }
+                weight += w;
+                sumCv += w * cv[i];
+                sumPitch += w * pitch[i];
+                sumDrills += w * drills[i];
+            }
+            if (weight <= 0.5) {
+                return Optional.empty();
+            }
+            return Optional.of(new Prediction(sumCv / weight, sumPitch / weight, sumDrills / weight));
+        }
+
+        private int index(int d, int f, int l) {
+            return (d * flows.length + f) * lens.length + l;
+        }
+
+        /** Index of the cell containing {@code v}, or -1 outside the axis. */
+        private static int lower(double[] axis, double v) {
+            if (v < axis[0] || v > axis[axis.length - 1]) {
+                return -1;
+            }
+            int i = Arrays.binarySearch(axis, v);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return Math.min(i, Math.max(0, axis.length - 2));
+        }
+
+        private static double fraction(double[] axis, int i, double v) {
+            return i + 1 < axis.length ? (v - axis[i]) / (axis[i + 1] - axis[i]) : 0.0;
+        }
+
+        private static double[] toArray(TreeSet<Double> values) {
+            return values.stream().mapToDouble(Double::doubleValue).toArray();
+        }
+    }
+}
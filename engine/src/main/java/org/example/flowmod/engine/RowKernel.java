@@ -0,0 +1,289 @@
+package org.example.flowmod.engine;
+
+import java.util.List;
+import org.apache.commons.math3.analysis.UnivariateFunction;
+import org.apache.commons.math3.analysis.solvers.BrentSolver;
+
+/**
+ * Compiled per-row view of a header used by the solvers.
+ * <p>
+ * Consecutive holes sharing a row index are folded into one aggregated open
+ * area, so a row's discharge is a single orifice evaluation however many
+ * holes it carries. The evaluation loops do not allocate. Instances are
+ * mutable through the package-private setters and not thread-safe.
+ * <p>
+ * Row 0 is the header's connection. Suction headers draw through the holes
+ * at {@code -localP}, and the collected flow's friction eases the suction
+ * away from the outlet; pressure headers discharge at {@code +localP}, with
+ * static regain as the header flow slows after each row partly offsetting
+ * friction.
+ * <p>
+ * With {@link Fidelity#ACCURATE} each gap's friction includes the
+ * developing-flow excess behind a branch, and each row adds a momentum
+ * balance: the regain of a pressure header replaces the lumped coefficient,
+ * and the suction of a suction header eases further by the pressure spent
+ * accelerating the collected flow.
+ */
+public final class RowKernel {
+    private final double idMm;
+    private final double inletFlowLps;
+    private final boolean pressure;
+    private final boolean accurate;
+    private final int rows;
+    private final double[] areaM2;
+    private final double[] posMm;
+    // header state on arrival at each row, recorded by the last march
+    private final double[] pAtKPa;
+    private final double[] flowInLps;
+
+    RowKernel(double[] areaM2, double[] posMm, int rows, FlowParameters p) {
+        this(areaM2, posMm, rows, p, Fidelity.FAST);
+    }
+
+    RowKernel(double[] areaM2, double[] posMm, int rows, FlowParameters p, Fidelity fidelity) {
+        this.idMm = p.pipeDiameterMm();
+        this.inletFlowLps = p.flowLps();
+        this.pressure = p.headerType() == HeaderType.PRESSURE;
+        this.accurate = fidelity == Fidelity.ACCURATE;
+        this.rows = rows;
+        this.areaM2 = java.util.Arrays.copyOf(areaM2, rows);
+        this.posMm = java.util.Arrays.copyOf(posMm, rows);
+        this.pAtKPa = new double[rows];
+        this.flowInLps = new double[rows];
+    }
+
+    /**
+     * Compile a layout. Holes are grouped into rows by consecutive equal
+     * {@link HoleSpec#rowIndex()}; a row sits at the axial position of its
+     * first hole.
+     */
+    public static RowKernel compile(HoleLayout layout, FlowParameters p) {
+        return compile(layout, p, Fidelity.FAST);
+    }
+
+    /** Compile a layout for the given model fidelity. */
+    public static RowKernel compile(HoleLayout layout, FlowParameters p, Fidelity fidelity) {
+        List<HoleSpec> holes = layout.getHoles();
+        double[] area = new double[holes.size()];
+        double[] pos = new double[holes.size()];
+        int rows = 0;
+        int prevRow = 0;
+        for (int i = 0; i < holes.size(); i++) {
+            HoleSpec h = holes.get(i);
+            if (i == 0 || h.rowIndex() != prevRow) {
+                pos[rows] = h.axialPosMm();
+                rows++;
+                prevRow = h.rowIndex();
+            }
+            area[rows - 1] += holeAreaM2(h.holeDiameterMm());
+        }
+        return new RowKernel(area, pos, rows, p, fidelity);
+    }
+
+    /** Open area of a circular hole, m^2. */
+    static double holeAreaM2(double dMm) {
+        return Math.PI * dMm * dMm / 4e6;
+    }
+
+    public int rowCount() {
+        return rows;
+    }
+
+    double rowAreaM2(int row) {
+        return areaM2[row];
+    }
+
+    void setRowAreaM2(int row, double area) {
+        areaM2[row] = area;
+    }
+
+    double rowPosMm(int row) {
+        return posMm[row];
+    }
+
+    void setRowPosMm(int row, double pos) {
+        posMm[row] = pos;
+    }
+
+    /** Header pressure arriving at a row during the last march, kPa. */
+    double rowPressureKPa(int row) {
+        return pAtKPa[row];
+    }
+
+    /** Header flow arriving at a row during the last march, L/s. */
+    double rowInflowLps(int row) {
+        return flowInLps[row];
+    }
+
+    double pipeDiameterMm() {
+        return idMm;
+    }
+
+    /** Whether this is a pressure header, fed rather than drawn at row 0. */
+    boolean isPressure() {
+        return pressure;
+    }
+
+    /** Discharge of one row at the given local header pressure. */
+    double rowFlowAt(int row, double localKPa) {
+        double dp = pressure ? localKPa : -localKPa;
+        return dp > 0.0 ? FlowPhysics.orificeFlowFromAreaLps(areaM2[row], dp) : 0.0;
+    }
+
+    /** Total discharge for the given header pressure, L/s. */
+    public double totalFlowLps(double headerKPa) {
+        return rowFlows(headerKPa, null);
+    }
+
+    /**
+     * Per-row discharge for the given header pressure.
+     *
+     * @param out receives one flow per row, or {@code null} when only the total is needed
+     * @return total discharge over all rows
+     */
+    public double rowFlows(double headerKPa, double[] out) {
+        return march(0, headerKPa, inletFlowLps, out);
+    }
+
+    /**
+     * Total discharge when the header is fed {@code inletLps} rather than the
+     * design flow, as when it is one branch of a manifold.
+     */
+    public double totalFlowLps(double headerKPa, double inletLps) {
+        return march(0, headerKPa, inletLps, null);
+    }
+
+    /** Per-row discharge for a header fed {@code inletLps}; returns the total. */
+    public double rowFlows(double headerKPa, double inletLps, double[] out) {
+        return march(0, headerKPa, inletLps, out);
+    }
+
+    private double march(int from, double headerKPa, double inletLps, double[] out) {
+        double pipeFlow = inletLps;
+        double localP = headerKPa;
+        double total = 0.0;
+        for (int i = from; i < rows; i++) {
+            pAtKPa[i] = localP;
+            flowInLps[i] = pipeFlow;
+            double q = rowFlowAt(i, localP);
+            if (out != null) {
+                out[i] = q;
+            }
+            total += q;
+            double before = pipeFlow;
+            pipeFlow -= q;
+            if (i < rows - 1) {
+                double dx = posMm[i + 1] - posMm[i];
+                if (dx < 0) {
+                    dx = 0.0;
+                }
+                if (accurate) {
+                    double friction = FlowPhysics.developingFrictionDrop_kPa(dx, idMm, Math.abs(pipeFlow));
+                    if (pressure) {
+                        localP += FlowPhysics.momentumRecovery_kPa(idMm, before, pipeFlow) - friction;
+                    } else {
+                        // the collected flow runs towards the outlet at row 0 and speeds up
+                        // on the way, so both terms raise the pressure away from it
+                        localP += FlowPhysics.accelerationDrop_kPa(idMm, before, pipeFlow) + friction;
+                    }
+                } else {
+                    double friction = FlowPhysics.frictionDrop_kPa(dx, idMm, Math.abs(pipeFlow));
+                    if (pressure) {
+                        localP += FlowPhysics.pressureRecovery_kPa(idMm, before, pipeFlow) - friction;
+                    } else {
+                        localP += friction;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Header pressure at which the rows pass the header flow: suction for
+     * {@link HeaderType#SUCTION}, supply pressure for {@link HeaderType#PRESSURE}.
+     */
+    public double solveHeaderKPa() {
+        return pressure ? solveSupplyKPa() : solveSuctionKPa();
+    }
+
+    /**
+     * Suction pressure at which the rows pass the header flow.
+     *
+     * @throws DesignNotConvergedException if the rows cannot pass the header flow
+     *                                     between -200 and -0.5 kPa
+     */
+    double solveSuctionKPa() {
+        return solveSuctionKPa(-200.0, -0.5);
+    }
+
+    /**
+     * Suction pressure between {@code low} and {@code high} at which the rows
+     * pass the header flow.
+     *
+     * @throws DesignNotConvergedException if the rows cannot pass the header flow
+     *                                     within the bracket
+     */
+    double solveSuctionKPa(double low, double high) {
+        SolveCounter.increment();
+        UnivariateFunction fn = x -> totalFlowLps(x) - inletFlowLps;
+
+        if (fn.value(low) < 0) {
+            throw new DesignNotConvergedException("Suction exceeds " + low + " kPa");
+        }
+        if (fn.value(high) > 0) {
+            throw new DesignNotConvergedException("Suction below " + high + " kPa");
+        }
+        return solve(fn, low, high);
+    }
+
+    /**
+     * Supply pressure at the inlet of a pressure header.
+     *
+     * @throws DesignNotConvergedException if the rows cannot pass the header flow
+     *                                     between 0.5 and 200 kPa
+     */
+    double solveSupplyKPa() {
+        SolveCounter.increment();
+        UnivariateFunction fn = x -> totalFlowLps(x) - inletFlowLps;
+
+        double low = 0.5;
+        double high = 200.0;
+        if (fn.value(high) < 0) {
+            throw new DesignNotConvergedException("Supply pressure exceeds 200 kPa");
+        }
+        if (fn.value(low) > 0) {
+            throw new DesignNotConvergedException("Supply pressure below 0.5 kPa");
+        }
+        return solve(fn, low, high);
+    }
+
+    private static double solve(UnivariateFunction fn, double low, double high) {
+        BrentSolver solver = new BrentSolver(1e-6);
+        double root = solver.solve(100, fn, low, high);
+        for (int i = 0; i < 20; i++) {
+            double err = fn.value(root);
+            if (Math.abs(err) < 1e-4) {
+                break;
+            }
+            root = solver.solve(100, fn, root - 1.0, root + 1.0);
+        }
+        return root;
+    }
+
+    /** Uniformity error (%CV) = 100*σ/μ of the first {@code n} values, sample σ. */
+    public static double uniformityPct(double[] flows, int n) {
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += flows[i];
+        }
+        double mean = sum / n;
+        double ss = 0.0;
+        for (int i = 0; i < n; i++) {
+            double d = flows[i] - mean;
+            ss += d * d;
+        }
+        double sd = n > 1 ? Math.sqrt(ss / (n - 1)) : 0.0;
+        return 100 * sd / mean;
+    }
+}
@@ -0,0 +1,250 @@
+package org.example.flowmod.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves rows along the header to even out flow without changing drill sizes.
+ * <p>
+ * The first and last rows stay put so the drilled span is unchanged; each
+ * sweep tries to nudge every row in between by the current step, keeping at
+ * least {@code minGapMm} and at most {@code maxGapMm} between neighbouring
+ * rows so the header stays covered. During a sweep the header pressure and
+ * each gap's friction gradient are frozen, so moving row {@code i} shifts
+ * every downstream row by the same pressure; with the downstream flows
+ * linearised in pressure a trial is scored in constant time from suffix
+ * sums and a whole sweep is linear in the row count. The exact model is
+ * re-solved after every sweep and the step is halved when a sweep stops
+ * improving, down to the manufacturing resolution. If a sweep moves the rows
+ * to where the header can no longer be solved, the best layout found so far
+ * is returned.
+ */
+public final class RowPositionOptimizer {
+
+    /**
+     * Outcome of an optimization.
+     *
+     * @param layout        layout with the moved rows
+     * @param uniformityPct uniformity error of {@code layout} in the exact model
+     * @param sweeps        number of sweeps performed
+     */
+    public record Result(HoleLayout layout, double uniformityPct, int sweeps) {
+    }
+
+    private final double minGapMm;
+    private final double maxGapMm;
+    private final double resolutionMm;
+    private final int maxSweeps;
+
+    /**
+     * @param minGapMm     smallest allowed distance between neighbouring rows
+     * @param maxGapMm     largest allowed distance between neighbouring rows
+     * @param resolutionMm positions are moved in multiples of this step
+     * @param maxSweeps    upper bound on the number of sweeps
+     */
+    public RowPositionOptimizer(double minGapMm, double maxGapMm, double resolutionMm, int maxSweeps) {
+        if (minGapMm < 0 || maxGapMm < minGapMm || resolutionMm <= 0 || maxSweeps < 1) {
+            throw new IllegalArgumentException("invalid optimizer settings");
+        }
+        this.minGapMm = minGapMm;
+        this.maxGapMm = maxGapMm;
+        this.resolutionMm = resolutionMm;
+        this.maxSweeps = maxSweeps;
+    }
+
+    /**
+     * Optimize {@code rows} rows drilled with a single drill size, starting
+     * from a uniform pitch.
+     */
+    public Result optimize(FlowParameters p, int rows, double drillMm) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("rows must be >= 1");
+        }
+        double pitch = p.headerLenMm() / rows;
+        List<Double> positions = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            positions.add(Math.round(i * pitch / resolutionMm) * resolutionMm);
+        }
+        return optimize(HoleLayout.withRows(positions, drillMm), p);
+    }
+
+    /**
+     * Optimize the row positions of an existing single-hole-per-row layout,
+     * keeping its diameters.
+     *
+     * @throws DesignNotConvergedException if {@code start} itself cannot be solved
+     */
+    public Result optimize(HoleLayout start, FlowParameters p) {
+        RowKernel kernel = RowKernel.compile(start, p);
+        int n = kernel.rowCount();
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = kernel.rowPosMm(i);
+        }
+        double[] flows = new double[n];
+        double cv = evaluate(kernel, flows);
+        if (n < 3) {
+            return new Result(toLayout(start, x), cv, 0);
+        }
+
+        double[] bestX = x.clone();
+        double bestCv = cv;
+        Frozen f = new Frozen(n);
+
+        double meanGap = (x[n - 1] - x[0]) / (n - 1);
+        double step = Math.max(resolutionMm, Math.floor(meanGap / 4 / resolutionMm) * resolutionMm);
+        int sweeps = 0;
+        while (sweeps < maxSweeps && step >= resolutionMm) {
+            Cancellation.check();
+            sweeps++;
+            f.capture(kernel, flows);
+            // pressure shift carried downstream by the moves accepted so far this sweep
+            double carried = 0.0;
+            double preSum = flows[0];
+            double preSq = flows[0] * flows[0];
+            boolean moved = false;
+
+            for (int i = 1; i < n - 1; i++) {
+                double keepQ = kernel.rowFlowAt(i, f.pAt[i] + carried);
+                double bestRowQ = keepQ;
+                double bestShift = carried;
+                double rowCv = f.cv(i, preSum, preSq, keepQ, carried);
+                double lo = Math.max(x[i - 1] + minGapMm, x[i + 1] - maxGapMm);
+                double hi = Math.min(x[i + 1] - minGapMm, x[i - 1] + maxGapMm);
+                for (int dir = -1; dir <= 1; dir += 2) {
+                    double delta = dir * step;
+                    double nx = x[i] + delta;
+                    if (nx < lo - 1e-9 || nx > hi + 1e-9) {
+                        continue;
+                    }
+                    double shiftRow = carried - delta * f.grad[i - 1];
+                    double shiftDown = shiftRow + delta * f.grad[i];
+                    double q = kernel.rowFlowAt(i, f.pAt[i] + shiftRow);
+                    double trialCv = f.cv(i, preSum, preSq, q, shiftDown);
+                    if (trialCv < rowCv - 1e-12) {
+                        x[i] += delta;
+                        rowCv = trialCv;
+                        bestRowQ = q;
+                        bestShift = shiftDown;
+                        moved = true;
+                        break;
+                    }
+                }
+                carried = bestShift;
+                preSum += bestRowQ;
+                preSq += bestRowQ * bestRowQ;
+            }
+
+            for (int i = 0; i < n; i++) {
+                kernel.setRowPosMm(i, x[i]);
+            }
+            try {
+                cv = evaluate(kernel, flows);
+            } catch (DesignNotConvergedException ex) {
+                break;
+            }
+            if (cv < bestCv) {
+                bestCv = cv;
+                System.arraycopy(x, 0, bestX, 0, n);
+            }
+            if (!moved) {
+                step /= 2;
+            }
+        }
+        return new Result(toLayout(start, bestX), bestCv, sweeps);
+    }
+
+    /** Solve the exact model and return its uniformity error; fills {@code flows}. */
+    private static double evaluate(RowKernel kernel, double[] flows) {
+        double header = kernel.solveHeaderKPa();
+        kernel.rowFlows(header, flows);
+        return RowKernel.uniformityPct(flows, flows.length);
+    }
+
+    /**
+     * State of the last exact march, linearised so that a uniform pressure
+     * shift of every row from {@code i} on is scored in constant time.
+     */
+    private static final class Frozen {
+        final double[] pAt;
+        /** Header pressure lost to friction per mm of the gap after each row, kPa; negative for suction. */
+        final double[] grad;
+        // suffix sums of q, dq/dp, q^2, q*dq/dp and (dq/dp)^2 from row j to the end
+        private final double[] sQ;
+        private final double[] sG;
+        private final double[] sQQ;
+        private final double[] sQG;
+        private final double[] sGG;
+
+        Frozen(int n) {
+            pAt = new double[n];
+            grad = new double[n];
+            sQ = new double[n + 1];
+            sG = new double[n + 1];
+            sQQ = new double[n + 1];
+            sQG = new double[n + 1];
+            sGG = new double[n + 1];
+        }
+
+        void capture(RowKernel kernel, double[] flows) {
+            int n = flows.length;
+            // suction headers draw at row 0, so friction raises the pressure along the rows
+            double sign = kernel.isPressure() ? 1.0 : -1.0;
+            for (int j = 0; j < n; j++) {
+                pAt[j] = kernel.rowPressureKPa(j);
+                if (j < n - 1) {
+                    // friction is linear in length, so one millimetre gives the gradient
+                    grad[j] = sign * FlowPhysics.frictionDrop_kPa(1.0, kernel.pipeDiameterMm(),
+                            Math.abs(kernel.rowInflowLps(j + 1)));
+                }
+            }
+            for (int j = n - 1; j >= 0; j--) {
+                double h = Math.max(1e-6, 1e-4 * Math.abs(pAt[j]));
+                double g = (kernel.rowFlowAt(j, pAt[j] + h) - kernel.rowFlowAt(j, pAt[j] - h)) / (2 * h);
+                double q = flows[j];
+                sQ[j] = sQ[j + 1] + q;
+                sG[j] = sG[j + 1] + g;
+                sQQ[j] = sQQ[j + 1] + q * q;
+                sQG[j] = sQG[j + 1] + q * g;
+                sGG[j] = sGG[j + 1] + g * g;
+            }
+        }
+
+        /**
+         * Uniformity error with rows before {@code i} summing to
+         * {@code preSum}/{@code preSq}, row {@code i} delivering {@code q} and
+         * every later row shifted by {@code shiftKPa}.
+         */
+        double cv(int i, double preSum, double preSq, double q, double shiftKPa) {
+            int n = pAt.length;
+            double t = shiftKPa;
+            double sum = preSum + q + sQ[i + 1] + t * sG[i + 1];
+            double sq = preSq + q * q + sQQ[i + 1] + 2 * t * sQG[i + 1] + t * t * sGG[i + 1];
+            return cvOf(sum, sq, n);
+        }
+    }
+
+    private static double cvOf(double sum, double sumSq, int n) {
+        double mean = sum / n;
+        double var = Math.max(0.0, (sumSq - n * mean * mean) / (n - 1));
+        return 100 * Math.sqrt(var) / mean;
+    }
+
+    private static HoleLayout toLayout(HoleLayout start, double[] x) {
+        List<HoleSpec> holes = start.getHoles();
+        int n = x.length;
+        double nominal = n > 1 ? (x[n - 1] - x[0]) / (n - 1) : (holes.isEmpty() ? 0.0 : holes.get(0).spacingMm());
+        HoleLayout layout = new HoleLayout();
+        int row = -1;
+        int prev = 0;
+        for (int i = 0; i < holes.size(); i++) {
+            HoleSpec h = holes.get(i);
+            if (i == 0 || h.rowIndex() != prev) {
+                row++;
+                prev = h.rowIndex();
+            }
+            layout.addHole(new HoleSpec(h.rowIndex(), h.holeDiameterMm(), h.angleDeg(), nominal, x[row]));
+        }
+        return layout;
+    }
+}
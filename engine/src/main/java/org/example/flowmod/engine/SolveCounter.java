@@ -0,0 +1,21 @@
+package org.example.flowmod.engine;
+
+/**
+ * Per-thread count of header pressure solves, used by the performance tests
+ * to budget solves per design independently of machine speed.
+ */
+final class SolveCounter {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private SolveCounter() {
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    /** Solves performed on the calling thread so far. */
+    static long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.flowmod.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleFunction;
+
+/**
+ * Finds the coarsest feasible row pitch on a manufacturing grid.
+ * <p>
+ * Candidate pitches are {@code minPitchMm + k * incrementMm} up to
+ * {@code maxPitchMm}. Assuming a pitch that works keeps working when made
+ * finer, the coarsest pitch is tried first and the rest of the range is
+ * bisected, so the number of taper runs grows with the logarithm of the
+ * number of candidates rather than linearly. Each taper is seeded from the
+ * tapered layout of the nearest pitch already tried.
+ * <p>
+ * Tapering runs in the fast header model; a layout that meets the target
+ * there is only accepted once it also meets it in the verification model.
+ */
+public final class SpacingSearch {
+
+    /**
+     * Outcome of a search.
+     *
+     * @param layout     tapered layout at the chosen pitch
+     * @param pitchMm    coarsest feasible pitch
+     * @param taperRuns  number of tapers run to find it; a warm-started taper
+     *                   that falls back to the largest drill counts twice
+     */
+    public record Result(HoleLayout layout, double pitchMm, int taperRuns) {
+    }
+
+    private final double minPitchMm;
+    private final double maxPitchMm;
+    private final double incrementMm;
+    private final Fidelity verification;
+
+    /** Search that accepts layouts on the fast model alone. */
+    public SpacingSearch(double minPitchMm, double maxPitchMm, double incrementMm) {
+        this(minPitchMm, maxPitchMm, incrementMm, Fidelity.FAST);
+    }
+
+    public SpacingSearch(double minPitchMm, double maxPitchMm, double incrementMm, Fidelity verification) {
+        if (minPitchMm <= 0 || maxPitchMm < minPitchMm || incrementMm <= 0) {
+            throw new IllegalArgumentException("invalid pitch range " + minPitchMm + ".." + maxPitchMm
+                    + " step " + incrementMm);
+        }
+        this.minPitchMm = minPitchMm;
+        this.maxPitchMm = maxPitchMm;
+        this.incrementMm = incrementMm;
+        this.verification = verification;
+    }
+
+    /** Search configured from {@link DesignRules} pitch bounds, increment and verification model. */
+    public static SpacingSearch fromRules(DesignRules rules) {
+        return new SpacingSearch(rules.minPitchMm(), rules.maxPitchMm(), rules.pitchIncrementMm(),
+                rules.verificationFidelity());
+    }
+
+    public double minPitchMm() {
+        return minPitchMm;
+    }
+
+    /**
+     * Coarsest pitch whose tapered layout meets the uniformity target.
+     *
+     * @throws DesignNotConvergedException if even the finest pitch fails
+     */
+    public Result search(FlowParameters p, List<Double> drillSet) {
+        double largest = drillSet.stream().mapToDouble(Double::doubleValue).max().orElseThrow();
+        return search(p, drillSet,
+                dx -> HoleLayout.withRows(DrillUtils.generateCandidateRows(p.headerLenMm(), dx), largest));
+    }
+
+    /**
+     * Coarsest pitch whose tapered layout meets the uniformity target, tapering
+     * {@code blanks.apply(pitch)} at each pitch tried. A blank holds every hole
+     * the pitch may drill, at the largest diameter each may have, and is only
+     * ever tapered down; {@code null} marks a pitch as infeasible. A warm start
+     * seeds each row one drill size above the largest hole of the nearest row
+     * of a neighbouring pitch, capped at the blank's diameter.
+     *
+     * @throws DesignNotConvergedException if even the finest pitch fails
+     */
+    public Result search(FlowParameters p, List<Double> drillSet, DoubleFunction<HoleLayout> blanks) {
+        List<Double> sizes = new ArrayList<>(drillSet);
+        sizes.sort(Comparator.reverseOrder());
+        TreeMap<Double, HoleLayout> tapered = new TreeMap<>();
+        int[] tapers = {0};
+
+        Result result = search(dx -> {
+            HoleLayout blank = blanks.apply(dx);
+            if (blank == null) {
+                return null;
+            }
+            HoleLayout neighbour = nearest(tapered, dx);
+            try {
+                if (neighbour != null && !neighbour.getHoles().isEmpty()) {
+                    tapers[0]++;
+                    HoleLayout layout = taperSeeded(blank, neighbour, sizes, p);
+                    if (FlowPhysics.CV(layout, p) <= DesignRules.UNIFORMITY_TARGET_PCT) {
+                        tapered.put(dx, layout);
+                        return verified(layout, p);
+                    }
+                    // the warm start may have undershot; confirm from the blank
+                }
+                tapers[0]++;
+                HoleLayout layout = DrillUtils.taperFrom(blank, sizes, p);
+                tapered.put(dx, layout);
+                return FlowPhysics.CV(layout, p) <= DesignRules.UNIFORMITY_TARGET_PCT ? verified(layout, p) : null;
+            } catch (DesignNotConvergedException ex) {
+                return null;
+            }
+        });
+        return new Result(result.layout(), result.pitchMm(), tapers[0]);
+    }
+
+    /**
+     * Coarsest pitch for which {@code attempt} returns a layout. Each call to
+     * {@code attempt} counts as one taper run.
+     *
+     * @param attempt returns the layout for a pitch, or {@code null} if it is infeasible
+     * @throws DesignNotConvergedException if even the finest pitch fails
+     */
+    public Result search(DoubleFunction<HoleLayout> attempt) {
+        int steps = (int) Math.floor((maxPitchMm - minPitchMm) / incrementMm + 1e-9);
+        int runs = 1;
+        HoleLayout coarsest = attempt.apply(pitch(steps));
+        if (coarsest != null) {
+            return new Result(coarsest, pitch(steps), runs);
+        }
+
+        // invariant: pitch(hi) fails, pitch(lo) works (lo == -1: none found yet)
+        int lo = -1;
+        int hi = steps;
+        HoleLayout best = null;
+        while (hi - lo > 1) {
+            int mid = Math.floorDiv(lo + hi, 2);
+            runs++;
+            HoleLayout layout = attempt.apply(pitch(mid));
+            if (layout != null) {
+                lo = mid;
+                best = layout;
+            } else {
+                hi = mid;
+            }
+        }
+        if (best == null) {
+            throw new DesignNotConvergedException(String.format(
+                    "Cannot meet spec even at %.0f mm grid", minPitchMm));
+        }
+        return new Result(best, pitch(lo), runs);
+    }
+
+    /** {@code layout} if it also meets the target in the verification model, else {@code null}. */
+    private HoleLayout verified(HoleLayout layout, FlowParameters p) {
+        if (verification == Fidelity.FAST) {
+            return layout;
+        }
+        double cv = FlowPhysics.computeUniformityError(layout, p, verification);
+        return cv <= DesignRules.UNIFORMITY_TARGET_PCT ? layout : null;
+    }
+
+    private double pitch(int k) {
+        return minPitchMm + k * incrementMm;
+    }
+
+    private static HoleLayout nearest(TreeMap<Double, HoleLayout> tapered, double dx) {
+        Map.Entry<Double, HoleLayout> below = tapered.floorEntry(dx);
+        Map.Entry<Double, HoleLayout> above = tapered.ceilingEntry(dx);
+        if (below == null) {
+            return above == null ? null : above.getValue();
+        }
+        if (above == null) {
+            return below.getValue();
+        }
+        return dx - below.getKey() <= above.getKey() - dx ? below.getValue() : above.getValue();
+    }
+
+    /**
+     * Taper {@code blank} starting each row one drill size above the largest
+     * hole of the row at the same relative position in {@code neighbour}.
+     */
+    private static HoleLayout taperSeeded(HoleLayout blank, HoleLayout neighbour,
+                                          List<Double> sizesDesc, FlowParameters p) {
+        List<HoleSpec> ref = neighbour.getHoles();
+        double len = p.headerLenMm();
+        // relative position and largest hole of each neighbouring row
+        List<Double> refPos = new ArrayList<>();
+        List<Double> refMax = new ArrayList<>();
+        for (int i = 0; i < ref.size(); i++) {
+            HoleSpec h = ref.get(i);
+            if (i == 0 || h.rowIndex() != ref.get(i - 1).rowIndex()) {
+                refPos.add(h.axialPosMm() / len);
+                refMax.add(h.holeDiameterMm());
+            } else {
+                int last = refMax.size() - 1;
+                refMax.set(last, Math.max(refMax.get(last), h.holeDiameterMm()));
+            }
+        }
+
+        HoleLayout seeded = new HoleLayout();
+        int j = 0;
+        for (HoleSpec h : blank.getHoles()) {
+            double x = h.axialPosMm() / len;
+            while (j + 1 < refPos.size() && Math.abs(refPos.get(j + 1) - x) <= Math.abs(refPos.get(j) - x)) {
+                j++;
+            }
+            int idx = Collections.binarySearch(sizesDesc, refMax.get(j), Comparator.reverseOrder());
+            idx = idx <= 0 ? 0 : idx - 1;
+            seeded.addHole(h.withDiameter(Math.min(h.holeDiameterMm(), sizesDesc.get(idx))));
+        }
+        return DrillUtils.taperFrom(seeded, sizesDesc, p);
+    }
+}
@@ -0,0 +1,287 @@
+package org.example.flowmod.engine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only journal of finished sweep designs.
+ * <p>
+ * Each record is one tab separated line keyed by {@link #key(FlowParameters)}:
+ * <pre>
+ * OK   key  uniformityPct  pitchMm  d1;d2;...
+ * FAIL key  reason
+ * </pre>
+ * The channel is forced to disk every {@code syncEvery} records or
+ * {@code syncIntervalMs} milliseconds, whichever comes first. A trailing
+ * partial line left by a crash is truncated when the journal is reopened.
+ */
+public final class SweepJournal implements Closeable {
+
+    /** One journalled design outcome. */
+    public record Entry(FlowParameters params,
+                        boolean converged,
+                        double uniformityPct,
+                        double pitchMm,
+                        List<Double> diametersMm,
+                        String reason) {
+
+        /**
+         * Entry for a converged design, recording the mean distance between
+         * its drilled rows as the pitch.
+         */
+        public static Entry of(FlowParameters params, HoleLayout layout) {
+            return of(params, layout, rowPitchMm(layout));
+        }
+
+        /** Entry for a spacing search, recording the pitch the search chose. */
+        public static Entry of(FlowParameters params, SpacingSearch.Result result) {
+            return of(params, result.layout(), result.pitchMm());
+        }
+
+        private static Entry of(FlowParameters params, HoleLayout layout, double pitchMm) {
+            List<Double> dias = new ArrayList<>();
+            for (HoleSpec h : layout.getHoles()) {
+                dias.add(h.holeDiameterMm());
+            }
+            double cv = FlowPhysics.computeUniformityError(layout, params);
+            return new Entry(params, true, cv, pitchMm, List.copyOf(dias), "");
+        }
+
+        /** Span of the drilled rows over their gaps; the nominal spacing for a single row. */
+        private static double rowPitchMm(HoleLayout layout) {
+            List<HoleSpec> holes = layout.getHoles();
+            if (holes.isEmpty()) {
+                return 0.0;
+            }
+            int rows = 1;
+            for (int i = 1; i < holes.size(); i++) {
+                if (holes.get(i).rowIndex() != holes.get(i - 1).rowIndex()) {
+                    rows++;
+                }
+            }
+            HoleSpec first = holes.get(0);
+            if (rows == 1) {
+                return first.spacingMm();
+            }
+            return (holes.get(holes.size() - 1).axialPosMm() - first.axialPosMm()) / (rows - 1);
+        }
+
+        /** Entry for a design that did not converge. */
+        public static Entry failed(FlowParameters params, String reason) {
+            return new Entry(params, false, Double.NaN, Double.NaN, List.of(),
+                    reason == null ? "" : reason);
+        }
+
+        public String key() {
+            return SweepJournal.key(params);
+        }
+    }
+
+    private static final String OK = "OK";
+    private static final String FAIL = "FAIL";
+
+    private final FileChannel channel;
+    private final Set<String> completed;
+    private final int syncEvery;
+    private final long syncIntervalNanos;
+    private int unsynced;
+    private long lastSync = System.nanoTime();
+
+    private SweepJournal(FileChannel channel, Set<String> completed, int syncEvery, long syncIntervalMs) {
+        this.channel = channel;
+        this.completed = completed;
+        this.syncEvery = syncEvery;
+        this.syncIntervalNanos = syncIntervalMs * 1_000_000L;
+    }
+
+    /**
+     * Open (or create) a journal for appending, recovering the keys already present.
+     *
+     * @param file           journal file
+     * @param syncEvery      force to disk after this many records
+     * @param syncIntervalMs force to disk when this much time passed since the last force
+     */
+    public static SweepJournal open(Path file, int syncEvery, long syncIntervalMs) throws IOException {
+        if (syncEvery < 1 || syncIntervalMs < 0) {
+            throw new IllegalArgumentException("syncEvery must be >= 1 and syncIntervalMs >= 0");
+        }
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            truncatePartialLine(ch);
+            Set<String> keys = new HashSet<>();
+            for (Entry e : read(file)) {
+                keys.add(e.key());
+            }
+            ch.position(ch.size());
+            return new SweepJournal(ch, keys, syncEvery, syncIntervalMs);
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Journal key identifying a parameter set. Suction keys carry no header
+     * type so journals written before pressure headers existed stay valid.
+     */
+    public static String key(FlowParameters p) {
+        String key = p.pipeDiameterMm() + "/" + p.flowLps() + "/" + p.headerLenMm();
+        return p.headerType() == HeaderType.SUCTION ? key : key + "/" + p.headerType();
+    }
+
+    /** Read every complete record of a journal file. */
+    public static List<Entry> read(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Entry e = parse(line);
+                if (e != null) {
+                    entries.add(e);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /** Whether a record for these parameters is already journalled. */
+    public synchronized boolean isDone(FlowParameters p) {
+        return completed.contains(key(p));
+    }
+
+    public synchronized Set<String> completedKeys() {
+        return Collections.unmodifiableSet(new HashSet<>(completed));
+    }
+
+    /** Append a record, forcing the journal to disk when the sync policy is due. */
+    public synchronized void append(Entry e) throws IOException {
+        String line = e.converged()
+                ? String.join("\t", OK, e.key(), Double.toString(e.uniformityPct()),
+                        Double.toString(e.pitchMm()), joinDiameters(e.diametersMm()))
+                : String.join("\t", FAIL, e.key(), sanitize(e.reason()));
+        ByteBuffer buf = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        completed.add(e.key());
+        unsynced++;
+        long now = System.nanoTime();
+        if (unsynced >= syncEvery || now - lastSync >= syncIntervalNanos) {
+            sync();
+        }
+    }
+
+    /** Force all appended records to disk. */
+    public synchronized void sync() throws IOException {
+        if (unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+        }
+        lastSync = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static Entry parse(String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length < 3) {
+            return null;
+        }
+        FlowParameters p = parseKey(f[1]);
+        if (p == null) {
+            return null;
+        }
+        try {
+            if (OK.equals(f[0]) && f.length == 5) {
+                List<Double> dias = new ArrayList<>();
+                if (!f[4].isEmpty()) {
+                    for (String d : f[4].split(";")) {
+                        dias.add(Double.parseDouble(d));
+                    }
+                }
+                return new Entry(p, true, Double.parseDouble(f[2]), Double.parseDouble(f[3]),
+                        List.copyOf(dias), "");
+            }
+            if (FAIL.equals(f[0])) {
+                return Entry.failed(p, f[2]);
+            }
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return null;
+    }
+
+    private static FlowParameters parseKey(String key) {
+        String[] f = key.split("/");
+        if (f.length != 3 && f.length != 4) {
+            return null;
+        }
+        try {
+            HeaderType type = f.length == 4 ? HeaderType.valueOf(f[3]) : HeaderType.SUCTION;
+            return new FlowParameters(Double.parseDouble(f[0]), Double.parseDouble(f[1]),
+                    Double.parseDouble(f[2]), type);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static String joinDiameters(List<Double> dias) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < dias.size(); i++) {
+            if (i > 0) {
+                sb.append(';');
+            }
+            sb.append(dias.get(i));
+        }
+        return sb.toString();
+    }
+
+    private static String sanitize(String s) {
+        return s.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /** Drop any bytes after the last newline, i.e. a record interrupted mid-write. */
+    private static void truncatePartialLine(FileChannel ch) throws IOException {
+        long size = ch.size();
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer one = ByteBuffer.allocate(1);
+        long pos = size;
+        while (pos > 0) {
+            one.clear();
+            ch.read(one, pos - 1);
+            if (one.get(0) == '\n') {
+                break;
+            }
+            pos--;
+        }
+        if (pos < size) {
+            ch.truncate(pos);
+            ch.force(false);
+        }
+    }
+}
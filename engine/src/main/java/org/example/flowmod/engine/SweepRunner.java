@@ -0,0 +1,149 @@
+package org.example.flowmod.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Runs a designer over a parameter grid, journalling every outcome.
+ * <p>
+ * Grid points already present in the journal are skipped, so an interrupted
+ * sweep resumes where it stopped. Work is handed to the workers through a
+ * bounded queue, keeping memory flat however large the grid is.
+ */
+public final class SweepRunner {
+
+    /** Counts for one {@link #run} call. */
+    public record Summary(int designed, int failed, int skipped) {
+    }
+
+    private static final FlowParameters POISON = new FlowParameters(Double.NaN, Double.NaN, Double.NaN);
+
+    private final Function<FlowParameters, SweepJournal.Entry> designer;
+    private final int threads;
+    private final int queueCapacity;
+
+    /**
+     * @param designer      produces a layout or throws {@link DesignNotConvergedException}
+     * @param threads       number of worker threads
+     * @param queueCapacity maximum grid points waiting for a worker
+     */
+    public SweepRunner(Function<FlowParameters, HoleLayout> designer, int threads, int queueCapacity) {
+        this(threads, queueCapacity, designer == null ? null : p -> SweepJournal.Entry.of(p, designer.apply(p)));
+    }
+
+    private SweepRunner(int threads, int queueCapacity, Function<FlowParameters, SweepJournal.Entry> designer) {
+        if (designer == null) {
+            throw new IllegalArgumentException("designer must not be null");
+        }
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("threads and queueCapacity must be >= 1");
+        }
+        this.designer = designer;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /** Runner backed by {@link GraduatedHoleOptimizer#optimize(FlowParameters)}. */
+    public static SweepRunner forOptimizer(GraduatedHoleOptimizer optimizer, int threads) {
+        return new SweepRunner(optimizer::optimize, threads, threads * 4);
+    }
+
+    /**
+     * Runner backed by {@link RuleBasedHoleOptimizer#search(FlowParameters)},
+     * journalling the pitch the search chose.
+     */
+    public static SweepRunner forOptimizer(RuleBasedHoleOptimizer optimizer, int threads) {
+        return new SweepRunner(threads, threads * 4, p -> SweepJournal.Entry.of(p, optimizer.search(p)));
+    }
+
+    /**
+     * Design every grid point not yet in the journal.
+     *
+     * @throws IllegalStateException if a worker hit an unexpected error; the
+     *                               points journalled so far are kept
+     */
+    public Summary run(Iterable<FlowParameters> grid, SweepJournal journal)
+            throws IOException, InterruptedException {
+        BlockingQueue<FlowParameters> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger designed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> work(queue, journal, designed, failed, error), "sweep-" + t);
+            w.setDaemon(true);
+            workers.add(w);
+            w.start();
+        }
+
+        int skipped = 0;
+        try {
+            for (FlowParameters p : grid) {
+                if (error.get() != null) {
+                    break;
+                }
+                if (journal.isDone(p)) {
+                    skipped++;
+                    continue;
+                }
+                queue.put(p);
+            }
+        } finally {
+            for (int t = 0; t < threads; t++) {
+                queue.put(POISON);
+            }
+            for (Thread w : workers) {
+                w.join();
+            }
+            journal.sync();
+        }
+
+        Throwable t = error.get();
+        if (t instanceof IOException io) {
+            throw io;
+        }
+        if (t != null) {
+            throw new IllegalStateException("Sweep aborted", t);
+        }
+        return new Summary(designed.get(), failed.get(), skipped);
+    }
+
+    private void work(BlockingQueue<FlowParameters> queue, SweepJournal journal,
+                      AtomicInteger designed, AtomicInteger failed, AtomicReference<Throwable> error) {
+        while (true) {
+            FlowParameters p;
+            try {
+                p = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (p == POISON) {
+                return;
+            }
+            if (error.get() != null) {
+                continue;
+            }
+            try {
+                SweepJournal.Entry entry;
+                try {
+                    entry = designer.apply(p);
+                    designed.incrementAndGet();
+                } catch (DesignNotConvergedException ex) {
+                    entry = SweepJournal.Entry.failed(p, ex.getMessage());
+                    failed.incrementAndGet();
+                }
+                journal.append(entry);
+            } catch (Throwable t) {
+                error.compareAndSet(null, t);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.flowmod.engine;
+
+import java.util.List;
+
+/**
+ * Drilling sequence for a layout on the unrolled sheet.
+ *
+ * @param steps            holes in drilling order
+ * @param toolSequenceMm   drill diameters in the order they are loaded
+ * @param travelMm         total rapid travel from the home position
+ * @param estimatedSeconds estimated machining time
+ */
+public record Toolpath(List<Step> steps,
+                       List<Double> toolSequenceMm,
+                       double travelMm,
+                       double estimatedSeconds) {
+
+    /**
+     * One drilled hole.
+     *
+     * @param hole    hole being drilled
+     * @param drillMm drill used
+     * @param xMm     sheet position along the header
+     * @param yMm     sheet position around the unrolled circumference
+     */
+    public record Step(HoleSpec hole, double drillMm, double xMm, double yMm) {
+    }
+
+    /** Number of tool changes after the first tool is loaded. */
+    public int toolChanges() {
+        return Math.max(0, toolSequenceMm.size() - 1);
+    }
+}
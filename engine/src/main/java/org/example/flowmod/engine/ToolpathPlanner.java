@@ -0,0 +1,485 @@
+package org.example.flowmod.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Plans the CNC drilling sequence for a layout on the unrolled sheet.
+ * <p>
+ * Holes are grouped by drill so each tool is loaded once. Within a group the
+ * holes are ordered by a nearest-neighbour tour refined with 2-opt moves
+ * restricted to each hole's nearest neighbours; both steps use a uniform grid
+ * so thousands of holes plan in milliseconds. The order and direction in which
+ * the groups are visited is then chosen to minimise rapid travel between them.
+ * <p>
+ * Sheet coordinates are {@code x = axialPosMm} and
+ * {@code y = angleDeg / 360 * π * pipeDiameterMm}, with the machine home at
+ * the origin.
+ */
+public final class ToolpathPlanner {
+
+    private static final int NEIGHBOURS = 8;
+    private static final int MAX_PASSES = 50;
+    private static final int MAX_EXACT_TOOLS = 12;
+
+    private final DrillSizePolicy drillSizePolicy;
+    private final MachineProfile machine;
+
+    public ToolpathPlanner(DrillSizePolicy drillSizePolicy, MachineProfile machine) {
+        if (drillSizePolicy == null || machine == null) {
+            throw new IllegalArgumentException("policy and machine must not be null");
+        }
+        this.drillSizePolicy = drillSizePolicy;
+        this.machine = machine;
+    }
+
+    /**
+     * Plan the drilling sequence.
+     *
+     * @param layout         holes to drill
+     * @param pipeDiameterMm pipe diameter the sheet is rolled to
+     */
+    public Toolpath plan(HoleLayout layout, double pipeDiameterMm) {
+        List<HoleSpec> holes = layout.getHoles();
+        int total = holes.size();
+        double circumference = Math.PI * pipeDiameterMm;
+        double[] xs = new double[total];
+        double[] ys = new double[total];
+        double[] drills = new double[total];
+        Map<Double, List<Integer>> byDrill = new TreeMap<>(Comparator.reverseOrder());
+        for (int i = 0; i < total; i++) {
+            HoleSpec h = holes.get(i);
+            xs[i] = h.axialPosMm();
+            ys[i] = h.angleDeg() / 360.0 * circumference;
+            drills[i] = drillSizePolicy.getDrillSize(h);
+            byDrill.computeIfAbsent(drills[i], d -> new ArrayList<>()).add(i);
+        }
+
+        int m = byDrill.size();
+        double[] tools = new double[m];
+        int[][] paths = new int[m][];
+        int g = 0;
+        for (Map.Entry<Double, List<Integer>> e : byDrill.entrySet()) {
+            tools[g] = e.getKey();
+            paths[g] = tour(xs, ys, e.getValue().stream().mapToInt(Integer::intValue).toArray());
+            g++;
+        }
+
+        int[] visit = new int[m];
+        boolean[] reversed = new boolean[m];
+        orderGroups(xs, ys, paths, visit, reversed);
+
+        List<Toolpath.Step> steps = new ArrayList<>(total);
+        List<Double> toolSequence = new ArrayList<>(m);
+        double travel = 0.0;
+        double cx = 0.0;
+        double cy = 0.0;
+        for (int k = 0; k < m; k++) {
+            int grp = visit[k];
+            toolSequence.add(tools[grp]);
+            int[] path = paths[grp];
+            for (int s = 0; s < path.length; s++) {
+                int i = path[reversed[grp] ? path.length - 1 - s : s];
+                travel += Math.hypot(xs[i] - cx, ys[i] - cy);
+                cx = xs[i];
+                cy = ys[i];
+                steps.add(new Toolpath.Step(holes.get(i), drills[i], xs[i], ys[i]));
+            }
+        }
+
+        double seconds = travel / machine.rapidMmPerSec()
+                + total * machine.drillSecondsPerHole()
+                + Math.max(0, m - 1) * machine.toolChangeSeconds();
+        return new Toolpath(List.copyOf(steps), List.copyOf(toolSequence), travel, seconds);
+    }
+
+    /**
+     * Open tour over the given points: nearest neighbour then neighbour-list 2-opt.
+     *
+     * @return the point indices in visiting order
+     */
+    static int[] tour(double[] xs, double[] ys, int[] idx) {
+        return tour(xs, ys, idx, true);
+    }
+
+    /** The nearest-neighbour tour {@link #tour} starts from, before 2-opt. */
+    static int[] nearestNeighbourTour(double[] xs, double[] ys, int[] idx) {
+        return tour(xs, ys, idx, false);
+    }
+
+    private static int[] tour(double[] xs, double[] ys, int[] idx, boolean improve) {
+        int n = idx.length;
+        if (n <= 2) {
+            return idx.clone();
+        }
+        double[] px = new double[n];
+        double[] py = new double[n];
+        for (int i = 0; i < n; i++) {
+            px[i] = xs[idx[i]];
+            py[i] = ys[idx[i]];
+        }
+
+        Grid grid = new Grid(px, py);
+        int[] t = grid.nearestNeighbourTour();
+        if (improve) {
+            twoOpt(px, py, t, grid.neighbourLists(NEIGHBOURS));
+        }
+
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = idx[t[i]];
+        }
+        return out;
+    }
+
+    /** Neighbour-list 2-opt for an open path; {@code t} is improved in place. */
+    static void twoOpt(double[] px, double[] py, int[] t, int[][] nb) {
+        int n = t.length;
+        int[] pos = new int[n];
+        for (int i = 0; i < n; i++) {
+            pos[t[i]] = i;
+        }
+        boolean improved = true;
+        for (int pass = 0; improved && pass < MAX_PASSES; pass++) {
+            improved = false;
+            for (int i = 0; i < n; i++) {
+                int a = t[i];
+                if (i < n - 1) {
+                    // new edge (a, c) after a: reverse t[i+1..j]
+                    int b = t[i + 1];
+                    double dab = dist(px, py, a, b);
+                    for (int c : nb[a]) {
+                        double dac = dist(px, py, a, c);
+                        if (dac >= dab) {
+                            break;
+                        }
+                        int j = pos[c];
+                        if (j <= i + 1) {
+                            continue;
+                        }
+                        double delta = dac - dab;
+                        if (j < n - 1) {
+                            int e = t[j + 1];
+                            delta += dist(px, py, b, e) - dist(px, py, c, e);
+                        }
+                        if (delta < -1e-9) {
+                            reverse(t, pos, i + 1, j);
+                            improved = true;
+                            break;
+                        }
+                    }
+                }
+                a = t[i];
+                if (i > 0) {
+                    // new edge (c, a) before a: reverse t[j..i-1]
+                    int b = t[i - 1];
+                    double dab = dist(px, py, a, b);
+                    for (int c : nb[a]) {
+                        double dac = dist(px, py, a, c);
+                        if (dac >= dab) {
+                            break;
+                        }
+                        int j = pos[c];
+                        if (j >= i - 1) {
+                            continue;
+                        }
+                        double delta = dac - dab;
+                        if (j > 0) {
+                            int e = t[j - 1];
+                            delta += dist(px, py, b, e) - dist(px, py, c, e);
+                        }
+                        if (delta < -1e-9) {
+                            reverse(t, pos, j, i - 1);
+                            improved = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Choose group order and direction minimising travel between groups and from home. */
+    private static void orderGroups(double[] xs, double[] ys, int[][] paths, int[] visit, boolean[] reversed) {
+        int m = paths.length;
+        if (m == 0) {
+            return;
+        }
+        if (m > MAX_EXACT_TOOLS) {
+            double cx = 0.0;
+            double cy = 0.0;
+            for (int g = 0; g < m; g++) {
+                int[] p = paths[g];
+                int first = p[0];
+                int last = p[p.length - 1];
+                reversed[g] = Math.hypot(xs[last] - cx, ys[last] - cy) < Math.hypot(xs[first] - cx, ys[first] - cy);
+                visit[g] = g;
+                int exit = reversed[g] ? first : last;
+                cx = xs[exit];
+                cy = ys[exit];
+            }
+            return;
+        }
+
+        // state (group, orientation): enter at entry(s), leave at exit(s)
+        int states = 2 * m;
+        int[] entry = new int[states];
+        int[] exit = new int[states];
+        for (int g = 0; g < m; g++) {
+            int[] p = paths[g];
+            entry[2 * g] = p[0];
+            exit[2 * g] = p[p.length - 1];
+            entry[2 * g + 1] = p[p.length - 1];
+            exit[2 * g + 1] = p[0];
+        }
+        int full = (1 << m) - 1;
+        double[][] cost = new double[1 << m][states];
+        int[][] from = new int[1 << m][states];
+        for (double[] row : cost) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (int s = 0; s < states; s++) {
+            cost[1 << (s / 2)][s] = Math.hypot(xs[entry[s]], ys[entry[s]]);
+            from[1 << (s / 2)][s] = -1;
+        }
+        for (int mask = 1; mask <= full; mask++) {
+            for (int s = 0; s < states; s++) {
+                double c = cost[mask][s];
+                if (c == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int s2 = 0; s2 < states; s2++) {
+                    int bit = 1 << (s2 / 2);
+                    if ((mask & bit) != 0) {
+                        continue;
+                    }
+                    double nc = c + Math.hypot(xs[entry[s2]] - xs[exit[s]], ys[entry[s2]] - ys[exit[s]]);
+                    if (nc < cost[mask | bit][s2]) {
+                        cost[mask | bit][s2] = nc;
+                        from[mask | bit][s2] = s;
+                    }
+                }
+            }
+        }
+        int best = 0;
+        for (int s = 1; s < states; s++) {
+            if (cost[full][s] < cost[full][best]) {
+                best = s;
+            }
+        }
+        int mask = full;
+        for (int k = m - 1; k >= 0; k--) {
+            visit[k] = best / 2;
+            reversed[best / 2] = (best & 1) == 1;
+            int prev = from[mask][best];
+            mask &= ~(1 << (best / 2));
+            best = prev;
+        }
+    }
+
+    private static void reverse(int[] t, int[] pos, int lo, int hi) {
+        while (lo < hi) {
+            int a = t[lo];
+            int b = t[hi];
+            t[lo] = b;
+            pos[b] = lo;
+            t[hi] = a;
+            pos[a] = hi;
+            lo++;
+            hi--;
+        }
+    }
+
+    private static double dist(double[] px, double[] py, int a, int b) {
+        return Math.hypot(px[a] - px[b], py[a] - py[b]);
+    }
+
+    /** Uniform bucket grid over a point set for nearest-neighbour queries. */
+    private static final class Grid {
+        private final double[] px;
+        private final double[] py;
+        private final double minX;
+        private final double minY;
+        private final double cell;
+        private final int cols;
+        private final int rows;
+        private final int[] head;
+        private final int[] next;
+        private final int[] prev;
+
+        Grid(double[] px, double[] py) {
+            this.px = px;
+            this.py = py;
+            int n = px.length;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            double loX = Double.POSITIVE_INFINITY;
+            double loY = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                loX = Math.min(loX, px[i]);
+                loY = Math.min(loY, py[i]);
+                maxX = Math.max(maxX, px[i]);
+                maxY = Math.max(maxY, py[i]);
+            }
+            double w = maxX - loX;
+            double h = maxY - loY;
+            double c = Math.sqrt(Math.max(w * h, 1e-12) / n);
+            c = Math.max(c, Math.max(w, h) / n);
+            this.cell = c > 0 ? c : 1.0;
+            this.minX = loX;
+            this.minY = loY;
+            this.cols = (int) Math.min(Math.floor(w / cell) + 1, 4L * n);
+            this.rows = (int) Math.min(Math.floor(h / cell) + 1, 4L * n);
+            this.head = new int[cols * rows];
+            this.next = new int[n];
+            this.prev = new int[n];
+            Arrays.fill(head, -1);
+            for (int i = 0; i < n; i++) {
+                insert(i);
+            }
+        }
+
+        private int cellOf(int i) {
+            int cx = Math.min(cols - 1, (int) ((px[i] - minX) / cell));
+            int cy = Math.min(rows - 1, (int) ((py[i] - minY) / cell));
+            return cy * cols + cx;
+        }
+
+        private void insert(int i) {
+            int c = cellOf(i);
+            next[i] = head[c];
+            prev[i] = -1;
+            if (head[c] >= 0) {
+                prev[head[c]] = i;
+            }
+            head[c] = i;
+        }
+
+        private void remove(int i) {
+            if (prev[i] >= 0) {
+                next[prev[i]] = next[i];
+            } else {
+                head[cellOf(i)] = next[i];
+            }
+            if (next[i] >= 0) {
+                prev[next[i]] = prev[i];
+            }
+        }
+
+        /** Greedy tour starting from the point nearest the grid origin corner. */
+        int[] nearestNeighbourTour() {
+            int n = px.length;
+            int start = 0;
+            for (int i = 1; i < n; i++) {
+                if (px[i] + py[i] < px[start] + py[start]) {
+                    start = i;
+                }
+            }
+            int[] t = new int[n];
+            int cur = start;
+            remove(cur);
+            t[0] = cur;
+            for (int k = 1; k < n; k++) {
+                cur = nearest(cur);
+                remove(cur);
+                t[k] = cur;
+            }
+            return t;
+        }
+
+        /** Nearest point still in the grid, searching rings of cells outwards. */
+        private int nearest(int from) {
+            int c = cellOf(from);
+            int ccx = c % cols;
+            int ccy = c / cols;
+            int best = -1;
+            double bestD = Double.POSITIVE_INFINITY;
+            int maxR = Math.max(cols, rows);
+            for (int r = 0; r <= maxR; r++) {
+                if (best >= 0 && bestD <= (r - 1) * cell) {
+                    break;
+                }
+                for (int gy = ccy - r; gy <= ccy + r; gy++) {
+                    if (gy < 0 || gy >= rows) {
+                        continue;
+                    }
+                    boolean edgeRow = gy == ccy - r || gy == ccy + r;
+                    for (int gx = ccx - r; gx <= ccx + r; gx += edgeRow ? 1 : 2 * r) {
+                        if (gx >= 0 && gx < cols) {
+                            for (int i = head[gy * cols + gx]; i >= 0; i = next[i]) {
+                                double d = Math.hypot(px[i] - px[from], py[i] - py[from]);
+                                if (d < bestD) {
+                                    bestD = d;
+                                    best = i;
+                                }
+                            }
+                        }
+                        if (r == 0) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        /** The {@code k} nearest other points of every point, closest first. */
+        int[][] neighbourLists(int k) {
+            int n = px.length;
+            for (int i = 0; i < n; i++) {
+                insert(i);
+            }
+            int kk = Math.min(k, n - 1);
+            int[][] out = new int[n][];
+            int[] cand = new int[kk];
+            double[] candD = new double[kk];
+            for (int p = 0; p < n; p++) {
+                int found = 0;
+                int c = cellOf(p);
+                int ccx = c % cols;
+                int ccy = c / cols;
+                int maxR = Math.max(cols, rows);
+                for (int r = 0; r <= maxR; r++) {
+                    if (found == kk && candD[kk - 1] <= (r - 1) * cell) {
+                        break;
+                    }
+                    for (int gy = ccy - r; gy <= ccy + r; gy++) {
+                        if (gy < 0 || gy >= rows) {
+                            continue;
+                        }
+                        boolean edgeRow = gy == ccy - r || gy == ccy + r;
+                        for (int gx = ccx - r; gx <= ccx + r; gx += edgeRow ? 1 : 2 * r) {
+                            if (gx >= 0 && gx < cols) {
+                                for (int i = head[gy * cols + gx]; i >= 0; i = next[i]) {
+                                    if (i == p) {
+                                        continue;
+                                    }
+                                    double d = Math.hypot(px[i] - px[p], py[i] - py[p]);
+                                    if (found < kk || d < candD[kk - 1]) {
+                                        int s = found < kk ? found++ : kk - 1;
+                                        while (s > 0 && candD[s - 1] > d) {
+                                            cand[s] = cand[s - 1];
+                                            candD[s] = candD[s - 1];
+                                            s--;
+                                        }
+                                        cand[s] = i;
+                                        candD[s] = d;
+                                    }
+                                }
+                            }
+                            if (r == 0) {
+                                break;
+                            }
+                        }
+                    }
+                }
+                out[p] = Arrays.copyOf(cand, found);
+            }
+            return out;
+        }
+    }
+}
@@ -84,4 +84,30 @@ public class DrillUtilsTest {
         double err = FlowPhysics.computeUniformityError(layout, params);
         assertTrue(err <= 5.0, "Uniformity error too high: " + err);
     }
+
+    @Test
+    public void testTaperFromShrinksHolesOfTheHighestFlowRow() {
+        // 20 rows of two opposed 16 mm holes
+        HoleLayout seeded = new HoleLayout();
+        for (int r = 0; r < 20; r++) {
+            seeded.addHole(new HoleSpec(r, 16.0, 0.0, 150.0));
+            seeded.addHole(new HoleSpec(r, 16.0, 180.0, 150.0));
+        }
+        java.util.List<Double> drillSet = java.util.List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0);
+        FlowParameters params = new FlowParameters(65.0, 10.0, 3000.0, HeaderType.PRESSURE);
+        assertTrue(FlowPhysics.computeUniformityError(seeded, params) > 5.0);
+
+        HoleLayout layout = DrillUtils.taperFrom(seeded, drillSet, params);
+        assertTrue(FlowPhysics.computeUniformityError(layout, params) <= 5.0);
+        java.util.List<HoleSpec> holes = layout.getHoles();
+        assertEquals(40, holes.size());
+        for (int i = 0; i < holes.size(); i += 2) {
+            HoleSpec a = holes.get(i);
+            HoleSpec b = holes.get(i + 1);
+            assertEquals(i / 2, a.rowIndex());
+            assertEquals(a.rowIndex(), b.rowIndex());
+            // the larger hole of a row is shrunk first, so a row spans at most one drill step
+            assertTrue(Math.abs(a.holeDiameterMm() - b.holeDiameterMm()) <= 2.0, "row " + a.rowIndex());
+        }
+    }
 }
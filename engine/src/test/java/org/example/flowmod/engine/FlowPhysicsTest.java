@@ -0,0 +1,179 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlowPhysicsTest {
+    @Test
+    public void testOrificeRoundTrip() {
+        double d = 10.0;
+        double q = 0.5;
+        double dp = FlowPhysics.orificeDeltaP_kPa(q, d);
+        double q2 = FlowPhysics.orificeFlowLps(d, dp);
+        assertEquals(q, q2, q * 0.01);
+    }
+
+    @Test
+    public void testFrictionDrop() {
+        double drop = FlowPhysics.frictionDrop_kPa(1000.0, 150.0, 6.0);
+        assertEquals(0.0084, drop, 0.0005);
+    }
+
+    @Test
+    public void testOrificeFlowKnownCase() {
+        double q = FlowPhysics.orificeFlowLps(10.0, 20.0);
+        assertEquals(0.303, q, 0.005);
+    }
+
+    @Test
+    public void testComputeReynolds() {
+        double gpm = 100.0;
+        double lps = gpm * 0.0631;
+        FlowParameters p = new FlowParameters(150.0, lps, 1000.0);
+        double Re = FlowPhysics.computeReynolds(p);
+        assertEquals(1.9e5, Re, 2e4);
+    }
+
+    @Test
+    public void testOrificeMonotonic() {
+        double q1 = FlowPhysics.orificeFlowLps(40.0, 1.0);
+        double q100 = FlowPhysics.orificeFlowLps(40.0, 100.0);
+        assertTrue(q1 * 10 <= q100);
+    }
+
+    @Test
+    public void testPressureRecovery() {
+        // 150 mm pipe slowing from 6 L/s to 3 L/s: v 0.34 -> 0.17 m/s
+        double regain = FlowPhysics.pressureRecovery_kPa(150.0, 6.0, 3.0);
+        assertEquals(0.026, regain, 0.002);
+        assertEquals(0.0, FlowPhysics.pressureRecovery_kPa(150.0, 3.0, 3.0), 1e-12);
+    }
+
+    @Test
+    public void testPressureHeaderSolve() {
+        HoleLayout layout = HoleLayout.withRows(DrillUtils.generateCandidateRows(1200.0, 120.0), 10.0);
+        FlowParameters p = new FlowParameters(50.0, 2.0, 1200.0, HeaderType.PRESSURE);
+
+        double supply = FlowPhysics.findHeaderPressureKPa(layout, p);
+        assertTrue(supply > 0.5 && supply < 200.0, "supply " + supply);
+        double total = FlowPhysics.rowFlows(layout, p, supply).stream().mapToDouble(Double::doubleValue).sum();
+        assertEquals(p.flowLps(), total, 1e-4);
+        assertThrows(IllegalArgumentException.class,
+                () -> FlowPhysics.findRequiredSuctionKPa(layout, p, -100.0, -1.0));
+    }
+
+    @Test
+    public void testSuctionSolveHonoursBracket() {
+        HoleLayout layout = HoleLayout.withRows(DrillUtils.generateCandidateRows(1200.0, 120.0), 10.0);
+        FlowParameters p = new FlowParameters(150.0, 6.3, 1200.0);
+
+        double suction = FlowPhysics.findHeaderPressureKPa(layout, p);
+        assertEquals(suction, FlowPhysics.findRequiredSuctionKPa(layout, p, suction - 5.0, suction + 1.0), 1e-3);
+        assertThrows(DesignNotConvergedException.class,
+                () -> FlowPhysics.findRequiredSuctionKPa(layout, p, suction + 1.0, -0.5));
+        assertThrows(DesignNotConvergedException.class,
+                () -> FlowPhysics.findRequiredSuctionKPa(layout, p, -200.0, suction - 1.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> FlowPhysics.findRequiredSuctionKPa(layout, p, -1.0, -100.0));
+    }
+
+    @Test
+    public void testPressureRegainFeedsFarEnd() {
+        // short 100 mm header at 10 L/s: the velocity head regained as the flow
+        // slows outweighs friction, so pressure rises towards the dead end
+        HoleLayout layout = HoleLayout.withRows(DrillUtils.generateCandidateRows(1200.0, 120.0), 16.0);
+        FlowParameters p = new FlowParameters(100.0, 10.0, 1200.0, HeaderType.PRESSURE);
+
+        double supply = FlowPhysics.findHeaderPressureKPa(layout, p);
+        List<Double> flows = FlowPhysics.rowFlows(layout, p, supply);
+        for (int i = 1; i < flows.size(); i++) {
+            assertTrue(flows.get(i) > flows.get(i - 1), "row " + i + ": " + flows);
+        }
+        double rise = flows.get(flows.size() - 1) / flows.get(0) - 1.0;
+        assertTrue(rise > 1e-3 && rise < 0.05, "far-end excess " + rise);
+    }
+
+    @Test
+    public void testDevelopingFrictionIntegral() {
+        double full = FlowPhysics.frictionDrop_kPa(1000.0, 150.0, 6.0);
+        double dev = FlowPhysics.developingFrictionDrop_kPa(1000.0, 150.0, 6.0);
+        // excess 0.5 decaying over 10 D = 1500 mm, integrated in closed form
+        double expected = full * (1.0 + 0.5 * 1.5 * (1.0 - Math.exp(-1000.0 / 1500.0)));
+        assertEquals(expected, dev, expected * 1e-5);
+        assertEquals(0.0, FlowPhysics.developingFrictionDrop_kPa(0.0, 150.0, 6.0), 1e-12);
+    }
+
+    @Test
+    public void testMomentumRecoveryBelowIdealRegain() {
+        double momentum = FlowPhysics.momentumRecovery_kPa(150.0, 6.0, 3.0);
+        double ideal = FlowPhysics.pressureRecovery_kPa(150.0, 6.0, 3.0) / 0.6;
+        assertTrue(momentum > 0.0 && momentum < ideal, momentum + " vs " + ideal);
+        assertEquals(0.0, FlowPhysics.momentumRecovery_kPa(150.0, 6.0, 0.0), 1e-12);
+    }
+
+    @Test
+    public void testAccelerationDropIsTwiceVelocityHead() {
+        double drop = FlowPhysics.accelerationDrop_kPa(150.0, 6.0, 3.0);
+        double head = FlowPhysics.pressureRecovery_kPa(150.0, 6.0, 3.0) / 0.6;
+        assertEquals(2 * head, drop, 1e-12);
+    }
+
+    @Test
+    public void testAccurateModelDiffersOnLongHeader() {
+        HoleLayout layout = HoleLayout.withRows(DrillUtils.generateCandidateRows(5000.0, 125.0), 12.0);
+        FlowParameters p = new FlowParameters(50.0, 6.3, 5000.0, HeaderType.PRESSURE);
+        double fast = FlowPhysics.computeUniformityError(layout, p);
+        double accurate = FlowPhysics.computeUniformityError(layout, p, Fidelity.ACCURATE);
+        assertEquals(fast, FlowPhysics.computeUniformityError(layout, p, Fidelity.FAST), 1e-12);
+        // the momentum regain exceeds the lumped one, so pressure falls less along the header,
+        // while the extra friction behind each branch still leaves the rows less even
+        assertTrue(headerRiseKPa(layout, p, Fidelity.ACCURATE) > headerRiseKPa(layout, p, Fidelity.FAST));
+        assertTrue(accurate > 1.05 * fast && accurate < 1.5 * fast, fast + " vs " + accurate);
+    }
+
+    @Test
+    public void testAccurateSuctionRisesAwayFromOutlet() {
+        // 60 mm suction header at 6.3 L/s: the collected flow reaches 2.2 m/s at the outlet
+        HoleLayout layout = HoleLayout.withRows(DrillUtils.generateCandidateRows(3000.0, 100.0), 12.0);
+        FlowParameters p = new FlowParameters(60.0, 6.3, 3000.0);
+        double area = Math.PI * 0.06 * 0.06 / 4;
+        double v = p.flowLps() / 1000 / area;
+        double rhoV2 = 1000 * v * v / 1000;
+
+        // flowing towards the outlet at row 0, friction and acceleration both leave
+        // less suction at each row further away, which then draws less
+        RowKernel accurate = RowKernel.compile(layout, p, Fidelity.ACCURATE);
+        double[] q = new double[accurate.rowCount()];
+        accurate.rowFlows(accurate.solveHeaderKPa(), q);
+        for (int i = 1; i < q.length; i++) {
+            assertTrue(accurate.rowPressureKPa(i) > accurate.rowPressureKPa(i - 1), "row " + i);
+            assertTrue(q[i] < q[i - 1], "row " + i);
+        }
+
+        // accelerating the flow from rest costs rho v^2 less the last row's small velocity
+        // head; friction adds to that, but on this short a header not as much again
+        double rise = headerRiseKPa(layout, p, Fidelity.ACCURATE);
+        assertTrue(rise > 0.9 * rhoV2 && rise < 1.5 * rhoV2, rise + " kPa vs rho v^2 " + rhoV2);
+
+        // FAST has the same end bias, from friction alone
+        List<Double> flows = FlowPhysics.rowFlows(layout, p, FlowPhysics.findHeaderPressureKPa(layout, p));
+        for (int i = 1; i < flows.size(); i++) {
+            assertTrue(flows.get(i) < flows.get(i - 1), "row " + i + ": " + flows);
+        }
+        double friction = headerRiseKPa(layout, p, Fidelity.FAST);
+        assertTrue(friction > 0.0 && rise - friction > 0.9 * rhoV2, friction + " vs " + rise);
+    }
+
+    /** Header pressure at the last row minus that at the first, at the balanced header pressure. */
+    private static double headerRiseKPa(HoleLayout layout, FlowParameters p, Fidelity fidelity) {
+        RowKernel kernel = RowKernel.compile(layout, p, fidelity);
+        double header = kernel.solveHeaderKPa();
+        kernel.rowFlows(header, null);
+        return kernel.rowPressureKPa(kernel.rowCount() - 1) - header;
+    }
+}
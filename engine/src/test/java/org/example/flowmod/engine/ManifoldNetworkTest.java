@@ -0,0 +1,132 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ManifoldNetworkTest {
+
+    private static final List<Double> DRILLS = List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0);
+
+    private static ManifoldNetwork network(int headers, double trunkMm, double flowLps) {
+        List<ManifoldNetwork.Branch> branches = new ArrayList<>();
+        for (int k = 0; k < headers; k++) {
+            branches.add(new ManifoldNetwork.Branch(3000.0, 50.0, 3000.0,
+                    HoleLayout.withRows(DrillUtils.generateCandidateRows(3000.0, 150.0), 10.0)));
+        }
+        return new ManifoldNetwork(trunkMm, flowLps, branches);
+    }
+
+    @Test
+    public void testSingleBranchMatchesStandaloneHeader() {
+        HoleLayout layout = HoleLayout.withRows(DrillUtils.generateCandidateRows(1200.0, 120.0), 10.0);
+        ManifoldNetwork net = new ManifoldNetwork(100.0, 3.0,
+                List.of(new ManifoldNetwork.Branch(0.0, 50.0, 1200.0, layout)));
+        ManifoldNetwork.Solution s = net.solve();
+
+        FlowParameters p = new FlowParameters(50.0, 3.0, 1200.0, HeaderType.PRESSURE);
+        assertEquals(FlowPhysics.findHeaderPressureKPa(layout, p), s.junctionKPa()[0], 1e-4);
+        assertEquals(3.0, s.headerFlowsLps()[0], 1e-9);
+        assertEquals(FlowPhysics.computeUniformityError(layout, p), s.uniformityPct(), 1e-3);
+    }
+
+    @Test
+    public void testFlowSplitsAndPressureFallsAlongTrunk() {
+        ManifoldNetwork.Solution s = network(4, 80.0, 12.0).solve();
+        double total = 0.0;
+        for (int k = 0; k < 4; k++) {
+            total += s.headerFlowsLps()[k];
+            double rows = 0.0;
+            for (double q : s.rowFlowsLps().get(k)) {
+                rows += q;
+            }
+            assertEquals(s.headerFlowsLps()[k], rows, 1e-8);
+            if (k > 0) {
+                assertTrue(s.junctionKPa()[k] < s.junctionKPa()[k - 1]);
+                assertTrue(s.headerFlowsLps()[k] < s.headerFlowsLps()[k - 1]);
+            }
+        }
+        assertEquals(12.0, total, 1e-8);
+        assertTrue(s.inletKPa() > s.junctionKPa()[0]);
+        assertTrue(s.iterations() <= 10, "iterations " + s.iterations());
+    }
+
+    @Test
+    public void testManyHeadersSolveInFewIterations() {
+        ManifoldNetwork.Solution s = network(200, 800.0, 600.0).solve();
+        assertEquals(200, s.headerFlowsLps().length);
+        assertTrue(s.iterations() <= 10, "iterations " + s.iterations());
+    }
+
+    @Test
+    @Tag("perf")
+    public void testManyHeadersSolveQuickly() {
+        ManifoldNetwork net = network(200, 800.0, 600.0);
+        long t0 = System.nanoTime();
+        ManifoldNetwork.Solution s = net.solve();
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        assertEquals(200, s.headerFlowsLps().length);
+        assertTrue(ms < 2000, "took " + ms + " ms");
+    }
+
+    @Test
+    public void testSuctionNetworkRejected() {
+        List<ManifoldNetwork.Branch> branches = network(2, 80.0, 6.0).branches();
+        assertThrows(IllegalArgumentException.class,
+                () -> new ManifoldNetwork(80.0, 6.0, HeaderType.SUCTION, branches));
+        assertEquals(2, new ManifoldNetwork(80.0, 6.0, HeaderType.PRESSURE, branches).solve()
+                .headerFlowsLps().length);
+    }
+
+    @Test
+    public void testBandedSystemMatchesDenseSolve() {
+        int n = 12;
+        Random rnd = new Random(7);
+        double[][] dense = new double[n][n];
+        BandedSystem band = new BandedSystem(n, 2, 1);
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - 2); j <= Math.min(n - 1, i + 1); j++) {
+                // a zero diagonal forces row swaps
+                double v = i == j && i % 3 == 2 ? 0.0 : rnd.nextDouble() - 0.5;
+                dense[i][j] = v;
+                band.set(i, j, v);
+            }
+        }
+        double[] expected = new double[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = i + 1.0;
+        }
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                b[i] += dense[i][j] * expected[j];
+            }
+        }
+        band.solve(b);
+        assertArrayEquals(expected, b, 1e-8);
+    }
+
+    @Test
+    public void testOptimizerMeetsPlantTarget() {
+        ManifoldNetwork net = network(4, 80.0, 12.0);
+        assertTrue(net.solve().uniformityPct() > DesignRules.UNIFORMITY_TARGET_PCT);
+
+        ManifoldOptimizer.Result r = new ManifoldOptimizer(new BasicDesignRules(10, DRILLS)).optimize(net);
+        assertTrue(r.solution().uniformityPct() <= DesignRules.UNIFORMITY_TARGET_PCT);
+        assertEquals(r.solution().uniformityPct(), r.network().solve().uniformityPct(), 1e-6);
+        assertEquals(4, r.network().branches().size());
+        assertTrue(r.steps() > 0);
+    }
+
+    @Test
+    public void testOptimizerFailsWhenSmallestDrillIsNotEnough() {
+        ManifoldNetwork net = network(4, 65.0, 12.0);
+        ManifoldOptimizer optimizer = new ManifoldOptimizer(new BasicDesignRules(10, List.of(10.0, 8.0)));
+        assertThrows(DesignNotConvergedException.class, () -> optimizer.optimize(net));
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiHoleOptimizerTest {
+
+    @Test
+    public void testFailsWhenHoleCountExhausted() {
+        DesignRules rules = new BasicDesignRules(1, List.of(8.0));
+        MultiHoleOptimizer optimizer = new MultiHoleOptimizer(rules, new DefaultDrillSizePolicy(), new FlowPhysics());
+        FlowParameters p = new FlowParameters(50.0, 5.0, 200.0);
+        assertThrows(DesignNotConvergedException.class, () -> optimizer.optimize(p));
+    }
+
+    @Test
+    public void testHolesMustFitCircumference() {
+        DesignRules rules = new BasicDesignRules(10, List.of(40.0));
+        MultiHoleOptimizer optimizer = new MultiHoleOptimizer(rules, new DefaultDrillSizePolicy(), new FlowPhysics());
+        FlowParameters p = new FlowParameters(20.0, 0.1, 500.0);
+        DesignNotConvergedException ex = assertThrows(DesignNotConvergedException.class,
+                () -> optimizer.optimize(p));
+        assertTrue(ex.getMessage().contains("10 rows"));
+    }
+
+    @Test
+    public void testSeveralHolesPerRowMeetTarget() {
+        // 40 L/s is more than ten rows of single 16 mm holes pass within 200 kPa
+        DesignRules rules = new BasicDesignRules(10, List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0));
+        MultiHoleOptimizer optimizer = new MultiHoleOptimizer(rules, new DefaultDrillSizePolicy(), new FlowPhysics());
+        FlowParameters p = new FlowParameters(150.0, 40.0, 1500.0);
+        HoleLayout layout = optimizer.optimize(p);
+
+        Map<Integer, Integer> perRow = new TreeMap<>();
+        for (HoleSpec h : layout.getHoles()) {
+            perRow.merge(h.rowIndex(), 1, Integer::sum);
+        }
+        assertTrue(perRow.size() <= 10, "rows " + perRow.size());
+        assertTrue(perRow.values().stream().anyMatch(k -> k > 1), "holes per row " + perRow.values());
+        assertTrue(FlowPhysics.computeUniformityError(layout, p) <= DesignRules.UNIFORMITY_TARGET_PCT);
+        assertTrue(FlowPhysics.computeUniformityError(layout, p, Fidelity.ACCURATE)
+                <= DesignRules.UNIFORMITY_TARGET_PCT);
+    }
+
+    @Test
+    public void testSingleHoleRowsMatchSpacingSearch() {
+        // a long narrow header needs a pitch search, and one hole per row
+        DesignRules rules = new BasicDesignRules(60, List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0));
+        FlowParameters p = new FlowParameters(50.0, 6.3, 2500.0, HeaderType.PRESSURE);
+        SpacingSearch.Result single = new RuleBasedHoleOptimizer(rules, new DefaultDrillSizePolicy(), new FlowPhysics())
+                .search(p);
+        assertTrue(single.taperRuns() >= 4, "taper runs " + single.taperRuns());
+
+        HoleLayout layout = new MultiHoleOptimizer(rules, new DefaultDrillSizePolicy(), new FlowPhysics()).optimize(p);
+        assertEquals(single.layout().getHoles(), layout.getHoles());
+    }
+
+    @Test
+    public void testPitchComesFromRuleGrid() {
+        DesignRules rules = new DesignRules() {
+            @Override
+            public int rowCount() {
+                return 30;
+            }
+
+            @Override
+            public double minPitchMm() {
+                return 60.0;
+            }
+
+            @Override
+            public double maxPitchMm() {
+                return 110.0;
+            }
+
+            @Override
+            public double pitchIncrementMm() {
+                return 25.0;
+            }
+        };
+        MultiHoleOptimizer optimizer = new MultiHoleOptimizer(rules, new DefaultDrillSizePolicy(), new FlowPhysics());
+        HoleLayout layout = optimizer.optimize(new FlowParameters(150.0, 40.0, 1500.0));
+        double pitch = layout.getHoles().get(0).spacingMm();
+        assertTrue(List.of(110.0, 85.0, 60.0).contains(pitch), "pitch " + pitch);
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Budgets on the work one design takes, run by {@code gradlew perfTest}
+ * rather than with the unit tests. Solve counts and allocated bytes are
+ * deterministic enough to catch algorithmic regressions on any machine; the
+ * time budgets are loose and only catch order-of-magnitude slowdowns. Every
+ * scenario must converge, and apart from the reference header each one
+ * bisects several pitches and tapers from the largest drill, so the budgets
+ * cover the search rather than a design accepted at the first pitch.
+ */
+@Tag("perf")
+public class OptimizerPerformanceTest {
+
+    private static final int WARMUP = 30;
+    private static final int RUNS = 30;
+
+    /** Per-design limits. */
+    private record Budget(long solves, long bytes, double millis) {
+    }
+
+    /** Measured cost of one design. */
+    private record Cost(long solves, long bytes, double millis, int taperRuns) {
+    }
+
+    private static RuleBasedHoleOptimizer optimizer() {
+        return new RuleBasedHoleOptimizer(
+                new BasicDesignRules(10, List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0)),
+                new DefaultDrillSizePolicy(), new FlowPhysics());
+    }
+
+    private static Cost measure(RuleBasedHoleOptimizer optimizer, FlowParameters p) {
+        int taperRuns = design(optimizer, p).taperRuns();
+        for (int i = 1; i < WARMUP; i++) {
+            design(optimizer, p);
+        }
+        com.sun.management.ThreadMXBean mx =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        boolean allocation = mx.isThreadAllocatedMemorySupported() && mx.isThreadAllocatedMemoryEnabled();
+        long thread = Thread.currentThread().getId();
+
+        long solves0 = SolveCounter.current();
+        long bytes0 = allocation ? mx.getThreadAllocatedBytes(thread) : 0L;
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long t0 = System.nanoTime();
+            design(optimizer, p);
+            fastest = Math.min(fastest, System.nanoTime() - t0);
+        }
+        long bytes = allocation ? (mx.getThreadAllocatedBytes(thread) - bytes0) / RUNS : 0L;
+        return new Cost((SolveCounter.current() - solves0) / RUNS, bytes, fastest / 1e6, taperRuns);
+    }
+
+    /** One design; a scenario that stops converging fails here rather than passing on a cheap failure. */
+    private static SpacingSearch.Result design(RuleBasedHoleOptimizer optimizer, FlowParameters p) {
+        try {
+            return optimizer.search(p);
+        } catch (DesignNotConvergedException ex) {
+            throw new AssertionError(p + " no longer converges", ex);
+        }
+    }
+
+    private static void assertWithin(String scenario, Budget budget, Cost cost) {
+        String detail = scenario + ": " + cost;
+        assertTrue(cost.solves() <= budget.solves(), "solves over budget " + budget.solves() + " - " + detail);
+        assertTrue(cost.bytes() <= budget.bytes(), "allocation over budget " + budget.bytes() + " - " + detail);
+        assertTrue(cost.millis() <= budget.millis(), "time over budget " + budget.millis() + " ms - " + detail);
+    }
+
+    /** Budget a scenario that has to search: several pitches, each tapered. */
+    private static void assertSearchWithin(String scenario, Budget budget, Cost cost) {
+        assertTrue(cost.taperRuns() >= 4, "expected a pitch search - " + scenario + ": " + cost);
+        assertWithin(scenario, budget, cost);
+    }
+
+    @Test
+    public void testReferenceHeader() {
+        FlowParameters p = new FlowParameters(200.0, 120.0 * 0.0631, 1300.0);
+        assertWithin("200 mm / 120 GPM / 1300 mm", new Budget(10, 64 * 1024, 5.0), measure(optimizer(), p));
+    }
+
+    @Test
+    public void testSmallPipeFallsBackToFinestPitch() {
+        FlowParameters p = new FlowParameters(50.0, 6.3, 2500.0, HeaderType.PRESSURE);
+        RuleBasedHoleOptimizer optimizer = optimizer();
+        // only the finest pitch of the default 50-150 mm grid meets the target
+        assertEquals(50.0, optimizer.search(p).pitchMm(), 1e-9);
+        Cost cost = measure(optimizer, p);
+        assertSearchWithin("50 mm / 6.3 L/s / 2500 mm pressure", new Budget(450, 4 << 20, 100.0), cost);
+    }
+
+    @Test
+    public void testLongPressureHeaders() {
+        RuleBasedHoleOptimizer optimizer = optimizer();
+        assertSearchWithin("50 mm / 6.3 L/s / 3000 mm pressure", new Budget(450, 4 << 20, 100.0),
+                measure(optimizer, new FlowParameters(50.0, 6.3, 3000.0, HeaderType.PRESSURE)));
+        assertSearchWithin("60 mm / 6.3 L/s / 6000 mm pressure", new Budget(400, 4 << 20, 150.0),
+                measure(optimizer, new FlowParameters(60.0, 6.3, 6000.0, HeaderType.PRESSURE)));
+    }
+
+    @Test
+    public void testTaperedSuctionHeader() {
+        FlowParameters p = new FlowParameters(40.0, 6.3, 5000.0);
+        assertSearchWithin("40 mm / 6.3 L/s / 5000 mm suction", new Budget(400, 4 << 20, 50.0),
+                measure(optimizer(), p));
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfilePyramidTest {
+
+    @Test
+    public void testDownsampleMatchesBruteForce() {
+        Random rnd = new Random(7);
+        int n = 1237;
+        double[] xs = new double[n];
+        double[] values = new double[n];
+        double x = 0.0;
+        for (int i = 0; i < n; i++) {
+            x += 1.0 + 4.0 * rnd.nextDouble();
+            xs[i] = x;
+            values[i] = rnd.nextGaussian();
+        }
+        ProfilePyramid pyramid = new ProfilePyramid(xs, values);
+
+        double[][] windows = {{xs[0], xs[n - 1]}, {100.0, 900.0}, {1500.0, 1520.0}};
+        for (double[] w : windows) {
+            for (int buckets : new int[]{1, 7, 300, 2000}) {
+                double[] min = new double[buckets];
+                double[] max = new double[buckets];
+                pyramid.downsample(w[0], w[1], min, max);
+                double width = (w[1] - w[0]) / buckets;
+                for (int b = 0; b < buckets; b++) {
+                    double lo = w[0] + b * width;
+                    double hi = b == buckets - 1 ? w[1] : w[0] + (b + 1) * width;
+                    double eMin = Double.POSITIVE_INFINITY;
+                    double eMax = Double.NEGATIVE_INFINITY;
+                    for (int i = 0; i < n; i++) {
+                        if (xs[i] >= lo && (xs[i] < hi || b == buckets - 1 && xs[i] == hi)) {
+                            eMin = Math.min(eMin, values[i]);
+                            eMax = Math.max(eMax, values[i]);
+                        }
+                    }
+                    if (eMin == Double.POSITIVE_INFINITY) {
+                        assertTrue(Double.isNaN(min[b]) && Double.isNaN(max[b]));
+                    } else {
+                        assertEquals(eMin, min[b], 0.0);
+                        assertEquals(eMax, max[b], 0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWholeSeriesExtremes() {
+        double[] xs = {0.0, 10.0, 20.0};
+        ProfilePyramid pyramid = new ProfilePyramid(xs, new double[]{2.0, -1.0, 5.0});
+        assertEquals(-1.0, pyramid.min(), 0.0);
+        assertEquals(5.0, pyramid.max(), 0.0);
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProfilePyramid(new double[]{1.0, 0.0}, new double[]{1.0, 1.0}));
+    }
+
+    @Test
+    public void testHeaderProfileMatchesUniformity() {
+        FlowParameters p = new FlowParameters(50.0, 2.0, 1200.0, HeaderType.PRESSURE);
+        HoleLayout layout = new HoleLayout();
+        for (int i = 0; i < 8; i++) {
+            layout.addHole(new HoleSpec(i, 12.0, 0.0, 150.0));
+        }
+        HeaderProfile profile = HeaderProfile.solve(layout, p);
+
+        assertEquals(8, profile.rowCount());
+        assertEquals(150.0, profile.positionsMm()[1] - profile.positionsMm()[0], 1e-12);
+        assertEquals(FlowPhysics.computeUniformityError(layout, p), profile.uniformityPct(), 1e-12);
+        double total = 0.0;
+        for (double q : profile.flowsLps()) {
+            total += q;
+        }
+        assertEquals(p.flowLps(), total, 1e-6 * p.flowLps());
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseSurfaceTest {
+
+    @TempDir
+    Path dir;
+
+    private static final FlowParameterGrid GRID = new FlowParameterGrid(new double[]{100.0, 200.0},
+            new double[]{1.0, 2.0}, new double[]{1000.0, 2000.0}, HeaderType.PRESSURE);
+
+    /** Journal a design whose outcome is linear in every parameter. */
+    private Path linearJournal(FlowParameters skip) throws Exception {
+        Path file = dir.resolve("surface.journal");
+        try (SweepJournal journal = SweepJournal.open(file, 64, 1000)) {
+            for (FlowParameters p : GRID) {
+                if (p.equals(skip)) {
+                    journal.append(SweepJournal.Entry.failed(p, "no design"));
+                    continue;
+                }
+                double cv = p.pipeDiameterMm() / 100 + p.flowLps() + p.headerLenMm() / 1000;
+                // 2 or 4 drill sizes over 10 or 20 holes
+                int holes = (int) (p.headerLenMm() / 100);
+                int sizes = (int) (p.headerLenMm() / 500);
+                List<Double> diameters = new ArrayList<>();
+                for (int k = 0; k < holes; k++) {
+                    diameters.add(16.0 - 2.0 * (k * sizes / holes));
+                }
+                journal.append(new SweepJournal.Entry(p, true, cv, p.pipeDiameterMm() / 2, diameters, ""));
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void testInterpolatesLinearResponseExactly() throws Exception {
+        ResponseSurface surface = ResponseSurface.fromJournal(linearJournal(null));
+        ResponseSurface.Prediction pr = surface
+                .predict(new FlowParameters(150.0, 1.25, 1500.0, HeaderType.PRESSURE)).orElseThrow();
+        assertEquals(1.5 + 1.25 + 1.5, pr.uniformityPct(), 1e-9);
+        assertEquals(75.0, pr.pitchMm(), 1e-9);
+        assertEquals(3.0, pr.drillCount(), 1e-9);
+
+        ResponseSurface.Prediction corner = surface
+                .predict(new FlowParameters(200.0, 2.0, 2000.0, HeaderType.PRESSURE)).orElseThrow();
+        assertEquals(6.0, corner.uniformityPct(), 1e-9);
+    }
+
+    @Test
+    public void testOutsideRangeOrOtherModeIsNotPredicted() throws Exception {
+        ResponseSurface surface = ResponseSurface.fromJournal(linearJournal(null));
+        assertTrue(surface.predict(new FlowParameters(250.0, 1.5, 1500.0, HeaderType.PRESSURE)).isEmpty());
+        assertTrue(surface.predict(new FlowParameters(150.0, 1.5, 1500.0)).isEmpty());
+        assertFalse(surface.covers(HeaderType.SUCTION));
+    }
+
+    @Test
+    public void testFailedCornersMarkInfeasibleRegion() throws Exception {
+        FlowParameters failed = new FlowParameters(200.0, 2.0, 2000.0, HeaderType.PRESSURE);
+        ResponseSurface surface = ResponseSurface.fromJournal(linearJournal(failed));
+        assertTrue(surface.predict(failed).isEmpty());
+        assertTrue(surface.predict(new FlowParameters(100.0, 1.0, 1000.0, HeaderType.PRESSURE)).isPresent());
+        // one failed corner of eight still leaves the cell centre predictable
+        assertTrue(surface.predict(new FlowParameters(150.0, 1.5, 1500.0, HeaderType.PRESSURE)).isPresent());
+    }
+
+    @Test
+    public void testBuildDesignsMissingPoints() throws Exception {
+        Path file = dir.resolve("built.journal");
+        SweepRunner runner = new SweepRunner(p -> {
+            throw new DesignNotConvergedException("no design");
+        }, 2, 2);
+        ResponseSurface surface = ResponseSurface.build(GRID, runner, file);
+        assertEquals(8, SweepJournal.read(file).size());
+        assertTrue(surface.covers(HeaderType.PRESSURE));
+        assertTrue(surface.predict(new FlowParameters(150.0, 1.5, 1500.0, HeaderType.PRESSURE)).isEmpty());
+    }
+}
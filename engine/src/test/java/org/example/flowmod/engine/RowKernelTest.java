@@ -0,0 +1,60 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RowKernelTest {
+
+    @Test
+    public void testHolesInRowAggregate() {
+        HoleLayout layout = new HoleLayout();
+        layout.addHole(new HoleSpec(0, 10.0, 0.0, 100.0));
+        layout.addHole(new HoleSpec(0, 10.0, 120.0, 100.0));
+        layout.addHole(new HoleSpec(0, 8.0, 240.0, 100.0));
+        layout.addHole(new HoleSpec(1, 12.0, 0.0, 100.0));
+        FlowParameters p = new FlowParameters(150.0, 0.0, 200.0);
+
+        RowKernel kernel = RowKernel.compile(layout, p);
+        assertEquals(2, kernel.rowCount());
+
+        double[] flows = new double[2];
+        kernel.rowFlows(-20.0, flows);
+        double expected = 2 * FlowPhysics.orificeFlowLps(10.0, 20.0) + FlowPhysics.orificeFlowLps(8.0, 20.0);
+        assertEquals(expected, flows[0], 1e-12);
+    }
+
+    @Test
+    public void testSingleHoleRowsMatchMarch() {
+        FlowParameters p = new FlowParameters(150.0, 6.309, 1200.0);
+        HoleLayout layout = new HoleLayout();
+        double[] dias = {16.0, 14.0, 12.0, 10.0};
+        for (int i = 0; i < dias.length; i++) {
+            layout.addHole(new HoleSpec(i, dias[i], 0.0, 300.0));
+        }
+
+        double suction = -30.0;
+        double localP = suction;
+        double pipeFlow = p.flowLps();
+        double[] expected = new double[dias.length];
+        for (int i = 0; i < dias.length; i++) {
+            expected[i] = FlowPhysics.orificeFlowLps(dias[i], -localP);
+            pipeFlow -= expected[i];
+            // the flow runs towards the outlet at row 0, so suction eases away from it
+            localP += FlowPhysics.frictionDrop_kPa(300.0, 150.0, Math.abs(pipeFlow));
+        }
+
+        double[] flows = new double[dias.length];
+        RowKernel.compile(layout, p).rowFlows(suction, flows);
+        for (int i = 0; i < dias.length; i++) {
+            assertEquals(expected[i], flows[i], 1e-12);
+        }
+    }
+
+    @Test
+    public void testUniformityPct() {
+        double[] flows = {1.0, 2.0, 3.0, 99.0};
+        assertEquals(50.0, RowKernel.uniformityPct(flows, 3), 1e-9);
+        assertEquals(0.0, RowKernel.uniformityPct(new double[]{4.0, 4.0}, 2), 1e-12);
+    }
+}
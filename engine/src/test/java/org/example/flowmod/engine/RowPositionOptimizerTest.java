@@ -0,0 +1,68 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowPositionOptimizerTest {
+
+    private static final FlowParameters LONG_HEADER =
+            new FlowParameters(50.0, 6.3, 5000.0, HeaderType.PRESSURE);
+
+    @Test
+    public void testMovingRowsImprovesUniformity() {
+        HoleLayout start = HoleLayout.withRows(DrillUtils.generateCandidateRows(5000.0, 125.0), 12.0);
+        double before = FlowPhysics.computeUniformityError(start, LONG_HEADER);
+
+        RowPositionOptimizer.Result r = new RowPositionOptimizer(20.0, 150.0, 1.0, 200).optimize(start, LONG_HEADER);
+        assertTrue(r.uniformityPct() < before, r.uniformityPct() + " vs " + before);
+        assertEquals(r.uniformityPct(), FlowPhysics.computeUniformityError(r.layout(), LONG_HEADER), 1e-9);
+    }
+
+    @Test
+    public void testGapBoundsAndEndsAreKept() {
+        HoleLayout start = HoleLayout.withRows(DrillUtils.generateCandidateRows(5000.0, 125.0), 12.0);
+        List<HoleSpec> holes = new RowPositionOptimizer(60.0, 150.0, 1.0, 200)
+                .optimize(start, LONG_HEADER).layout().getHoles();
+
+        assertEquals(start.getHoles().size(), holes.size());
+        assertEquals(0.0, holes.get(0).axialPosMm(), 1e-9);
+        assertEquals(start.getHoles().get(holes.size() - 1).axialPosMm(),
+                holes.get(holes.size() - 1).axialPosMm(), 1e-9);
+        for (int i = 1; i < holes.size(); i++) {
+            double gap = holes.get(i).axialPosMm() - holes.get(i - 1).axialPosMm();
+            assertTrue(gap >= 60.0 - 1e-9 && gap <= 150.0 + 1e-9, "gap " + gap + " at row " + i);
+            assertEquals(12.0, holes.get(i).holeDiameterMm(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testThousandsOfRowsImprove() {
+        FlowParameters p = new FlowParameters(200.0, 30.0, 60000.0, HeaderType.PRESSURE);
+        List<Double> rows = DrillUtils.generateCandidateRows(60000.0, 30.0);
+        double before = FlowPhysics.computeUniformityError(HoleLayout.withRows(rows, 4.0), p);
+        RowPositionOptimizer.Result r = new RowPositionOptimizer(10.0, 45.0, 1.0, 200).optimize(p, 2000, 4.0);
+        assertEquals(2000, r.layout().getHoles().size());
+        assertTrue(r.uniformityPct() < before, r.uniformityPct() + " vs " + before);
+    }
+
+    @Test
+    @Tag("perf")
+    public void testLongHeaderIsInteractive() {
+        FlowParameters p = new FlowParameters(200.0, 30.0, 60000.0, HeaderType.PRESSURE);
+        long t0 = System.nanoTime();
+        RowPositionOptimizer.Result r = new RowPositionOptimizer(10.0, 45.0, 1.0, 200).optimize(p, 2000, 4.0);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        assertEquals(2000, r.layout().getHoles().size());
+        assertTrue(ms < 3000, "took " + ms + " ms");
+    }
+
+    @Test
+    public void testInvalidSettingsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RowPositionOptimizer(50.0, 40.0, 1.0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RowPositionOptimizer(10.0, 40.0, 0.0, 10));
+    }
+}
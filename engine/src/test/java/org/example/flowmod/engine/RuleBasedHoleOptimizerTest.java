@@ -74,6 +74,21 @@ public class RuleBasedHoleOptimizerTest {
         assertTrue(err <= 5.0, "Uniformity too high: " + err);
     }
 
+    @Test
+    public void testPressureHeaderDesign() {
+        DrillSizePolicy policy = new DefaultDrillSizePolicy();
+        FlowPhysics physics = new FlowPhysics();
+        DesignRules rules = new BasicDesignRules(10,
+                java.util.List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0));
+        RuleBasedHoleOptimizer optimizer = new RuleBasedHoleOptimizer(rules, policy, physics);
+
+        FlowParameters p = new FlowParameters(50.0, 6.3, 1200.0, HeaderType.PRESSURE);
+        HoleLayout layout = optimizer.optimize(p);
+        assertTrue(layout.getHoles().size() > 0);
+        double err = FlowPhysics.computeUniformityError(layout, p);
+        assertTrue(err <= 5.0, "uniformity " + err);
+    }
+
     @Test
     public void testPathologicalCaseFailsQuickly() {
         DrillSizePolicy policy = new DefaultDrillSizePolicy();
@@ -0,0 +1,107 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpacingSearchTest {
+
+    private static HoleLayout feasibleUpTo(double limitMm, double dx, List<Double> tried) {
+        tried.add(dx);
+        return dx <= limitMm ? HoleLayout.withRows(List.of(0.0, dx), 10.0) : null;
+    }
+
+    @Test
+    public void testFindsCoarsestFeasiblePitch() {
+        SpacingSearch search = new SpacingSearch(50.0, 150.0, 5.0);
+        List<Double> tried = new ArrayList<>();
+        SpacingSearch.Result r = search.search(dx -> feasibleUpTo(87.0, dx, tried));
+        assertEquals(85.0, r.pitchMm(), 1e-9);
+        assertEquals(tried.size(), r.taperRuns());
+        // a linear scan at the same 5 mm resolution would taper 14 pitches
+        assertTrue(r.taperRuns() <= 6, "runs " + r.taperRuns());
+    }
+
+    @Test
+    public void testCoarsestPitchNeedsOneRun() {
+        SpacingSearch search = new SpacingSearch(50.0, 150.0, 5.0);
+        SpacingSearch.Result r = search.search(dx -> feasibleUpTo(1000.0, dx, new ArrayList<>()));
+        assertEquals(150.0, r.pitchMm(), 1e-9);
+        assertEquals(1, r.taperRuns());
+    }
+
+    @Test
+    public void testFinestPitchFeasible() {
+        SpacingSearch search = new SpacingSearch(50.0, 150.0, 5.0);
+        SpacingSearch.Result r = search.search(dx -> feasibleUpTo(52.0, dx, new ArrayList<>()));
+        assertEquals(50.0, r.pitchMm(), 1e-9);
+    }
+
+    @Test
+    public void testNothingFeasible() {
+        SpacingSearch search = new SpacingSearch(60.0, 150.0, 10.0);
+        List<Double> tried = new ArrayList<>();
+        DesignNotConvergedException ex = assertThrows(DesignNotConvergedException.class,
+                () -> search.search(dx -> feasibleUpTo(10.0, dx, tried)));
+        assertTrue(ex.getMessage().contains("60 mm"));
+        assertTrue(tried.size() <= 5, "runs " + tried.size());
+    }
+
+    @Test
+    public void testEveryTaperIsCounted() {
+        FlowParameters p = new FlowParameters(50.0, 6.3, 3000.0, HeaderType.PRESSURE);
+        List<Double> drills = List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0);
+        SpacingSearch search = new SpacingSearch(50.0, 150.0, 5.0, Fidelity.ACCURATE);
+        SpacingSearch.Result r = search.search(p, drills);
+        assertTrue(r.pitchMm() < 150.0, "pitch " + r.pitchMm());
+
+        // replay the bisection to find how many pitches it probed: at least one taper each
+        List<Double> probed = new ArrayList<>();
+        search.search(dx -> feasibleUpTo(r.pitchMm(), dx, probed));
+        assertTrue(probed.size() > 1);
+        assertTrue(r.taperRuns() >= probed.size(), r.taperRuns() + " tapers for " + probed);
+        assertEquals(1, new SpacingSearch(150.0, 150.0, 5.0).search(p, drills).taperRuns());
+    }
+
+    @Test
+    public void testOptimizerUsesRulePitchRange() {
+        DesignRules rules = new DesignRules() {
+            @Override
+            public double maxPitchMm() {
+                return 135.0;
+            }
+        };
+        RuleBasedHoleOptimizer optimizer = new RuleBasedHoleOptimizer(rules, new DefaultDrillSizePolicy(), new FlowPhysics());
+        FlowParameters p = new FlowParameters(50.0, 6.3, 1200.0, HeaderType.PRESSURE);
+        SpacingSearch.Result r = optimizer.search(p);
+        assertEquals(135.0, r.pitchMm(), 1e-9);
+        assertEquals(135.0, r.layout().getHoles().get(1).axialPosMm(), 1e-9);
+    }
+
+    @Test
+    public void testFinalCandidateVerifiedInAccurateModel() {
+        FlowParameters p = new FlowParameters(50.0, 6.3, 1200.0, HeaderType.PRESSURE);
+        List<Double> drills = List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0);
+        SpacingSearch.Result r = new SpacingSearch(50.0, 150.0, 5.0, Fidelity.ACCURATE).search(p, drills);
+        assertTrue(FlowPhysics.computeUniformityError(r.layout(), p, Fidelity.ACCURATE)
+                <= DesignRules.UNIFORMITY_TARGET_PCT);
+        assertTrue(FlowPhysics.computeUniformityError(r.layout(), p) <= DesignRules.UNIFORMITY_TARGET_PCT);
+    }
+
+    @Test
+    public void testInterruptCancelsSearch() {
+        FlowParameters p = new FlowParameters(50.0, 6.3, 1200.0, HeaderType.PRESSURE);
+        List<Double> drills = List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0);
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> new SpacingSearch(50.0, 150.0, 5.0).search(p, drills));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
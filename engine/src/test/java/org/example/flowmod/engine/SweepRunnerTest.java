@@ -0,0 +1,143 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SweepRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    private static FlowParameterGrid grid() {
+        return new FlowParameterGrid(new double[]{150.0, 200.0},
+                FlowParameterGrid.axis(5.0, 8.0, 3), new double[]{1200.0, 1300.0});
+    }
+
+    private static HoleLayout notConverged(FlowParameters p) {
+        throw new DesignNotConvergedException("no design for " + p.pipeDiameterMm());
+    }
+
+    @Test
+    public void testSweepJournalsEveryPoint() throws Exception {
+        Path file = dir.resolve("sweep.journal");
+        SweepRunner runner = new SweepRunner(SweepRunnerTest::notConverged, 3, 2);
+        try (SweepJournal journal = SweepJournal.open(file, 4, 1000)) {
+            SweepRunner.Summary s = runner.run(grid(), journal);
+            assertEquals(12, s.failed());
+            assertEquals(0, s.skipped());
+        }
+        List<SweepJournal.Entry> entries = SweepJournal.read(file);
+        assertEquals(12, entries.size());
+        assertTrue(entries.get(0).reason().startsWith("no design for"));
+    }
+
+    @Test
+    public void testRestartSkipsJournalledKeys() throws Exception {
+        Path file = dir.resolve("sweep.journal");
+        AtomicInteger calls = new AtomicInteger();
+        SweepRunner runner = new SweepRunner(p -> {
+            calls.incrementAndGet();
+            return notConverged(p);
+        }, 2, 1);
+        try (SweepJournal journal = SweepJournal.open(file, 1, 0)) {
+            runner.run(grid(), journal);
+        }
+        assertEquals(12, calls.get());
+
+        try (SweepJournal journal = SweepJournal.open(file, 1, 0)) {
+            SweepRunner.Summary s = runner.run(grid(), journal);
+            assertEquals(12, s.skipped());
+        }
+        assertEquals(12, calls.get());
+    }
+
+    @Test
+    public void testConvergedRecordSurvivesRestart() throws Exception {
+        Path file = dir.resolve("sweep.journal");
+        FlowParameters p = new FlowParameters(100.0, 6.3, 3000.0);
+        AtomicInteger calls = new AtomicInteger();
+        RuleBasedHoleOptimizer optimizer = new RuleBasedHoleOptimizer(
+                new BasicDesignRules(10, List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0)),
+                new DefaultDrillSizePolicy(), new FlowPhysics()) {
+            @Override
+            public SpacingSearch.Result search(FlowParameters params) {
+                calls.incrementAndGet();
+                return super.search(params);
+            }
+        };
+        SpacingSearch.Result expected = optimizer.search(p);
+        FlowParameterGrid grid = new FlowParameterGrid(new double[]{100.0}, new double[]{6.3}, new double[]{3000.0});
+        SweepRunner runner = SweepRunner.forOptimizer(optimizer, 1);
+        try (SweepJournal journal = SweepJournal.open(file, 1, 0)) {
+            assertEquals(1, runner.run(grid, journal).designed());
+        }
+
+        List<SweepJournal.Entry> entries = SweepJournal.read(file);
+        assertEquals(1, entries.size());
+        SweepJournal.Entry e = entries.get(0);
+        assertTrue(e.converged());
+        assertEquals(p, e.params());
+        assertEquals(expected.pitchMm(), e.pitchMm(), 0.0);
+        assertEquals(expected.layout().getHoles().stream().map(HoleSpec::holeDiameterMm).toList(),
+                e.diametersMm());
+        assertEquals(FlowPhysics.computeUniformityError(expected.layout(), p), e.uniformityPct(), 0.0);
+
+        try (SweepJournal journal = SweepJournal.open(file, 1, 0)) {
+            assertTrue(journal.isDone(p));
+            SweepRunner.Summary s = runner.run(grid, journal);
+            assertEquals(1, s.skipped());
+            assertEquals(0, s.designed());
+        }
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testPartialRecordIsDiscardedOnReopen() throws Exception {
+        Path file = dir.resolve("sweep.journal");
+        FlowParameters done = new FlowParameters(150.0, 5.0, 1200.0);
+        try (SweepJournal journal = SweepJournal.open(file, 1, 0)) {
+            journal.append(SweepJournal.Entry.failed(done, "x"));
+        }
+        Files.write(file, "OK\t200.0/8.0/13".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (SweepJournal journal = SweepJournal.open(file, 1, 0)) {
+            assertTrue(journal.isDone(done));
+            assertEquals(1, journal.completedKeys().size());
+            journal.append(SweepJournal.Entry.failed(new FlowParameters(200.0, 8.0, 1300.0), "y"));
+        }
+        assertEquals(2, SweepJournal.read(file).size());
+    }
+
+    @Test
+    public void testPressureKeysAreDistinct() throws Exception {
+        Path file = dir.resolve("sweep.journal");
+        FlowParameters suction = new FlowParameters(150.0, 5.0, 1200.0);
+        FlowParameters pressure = new FlowParameters(150.0, 5.0, 1200.0, HeaderType.PRESSURE);
+        try (SweepJournal journal = SweepJournal.open(file, 1, 0)) {
+            journal.append(SweepJournal.Entry.failed(pressure, "x"));
+            assertFalse(journal.isDone(suction));
+        }
+        assertEquals(pressure, SweepJournal.read(file).get(0).params());
+    }
+
+    @Test
+    public void testUnexpectedErrorAbortsSweep() throws Exception {
+        Path file = dir.resolve("sweep.journal");
+        SweepRunner runner = new SweepRunner(p -> {
+            throw new ArithmeticException("boom");
+        }, 2, 2);
+        try (SweepJournal journal = SweepJournal.open(file, 1, 0)) {
+            assertThrows(IllegalStateException.class, () -> runner.run(grid(), journal));
+        }
+        assertTrue(SweepJournal.read(file).isEmpty());
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.flowmod.engine;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolpathPlannerTest {
+
+    private static HoleLayout gridLayout(int rows, int holesPerRow, double spacing, List<Double> drills) {
+        HoleLayout layout = new HoleLayout();
+        for (int r = 0; r < rows; r++) {
+            for (int j = 0; j < holesPerRow; j++) {
+                double d = drills.get((r + j) % drills.size());
+                layout.addHole(new HoleSpec(r, d, 360.0 * j / holesPerRow, spacing));
+            }
+        }
+        return layout;
+    }
+
+    @Test
+    public void testEachToolLoadedOnce() {
+        HoleLayout layout = gridLayout(20, 4, 100.0, List.of(16.0, 12.0, 8.0));
+        ToolpathPlanner planner = new ToolpathPlanner(new DefaultDrillSizePolicy(), MachineProfile.DEFAULT);
+        Toolpath path = planner.plan(layout, 200.0);
+
+        assertEquals(80, path.steps().size());
+        assertEquals(3, path.toolSequenceMm().size());
+        assertEquals(2, path.toolChanges());
+        int changes = 0;
+        for (int i = 1; i < path.steps().size(); i++) {
+            if (path.steps().get(i).drillMm() != path.steps().get(i - 1).drillMm()) {
+                changes++;
+            }
+        }
+        assertEquals(2, changes);
+
+        Set<HoleSpec> seen = new HashSet<>();
+        for (Toolpath.Step s : path.steps()) {
+            seen.add(s.hole());
+        }
+        assertEquals(80, seen.size());
+    }
+
+    @Test
+    public void testTimeEstimate() {
+        HoleLayout layout = new HoleLayout();
+        layout.addHole(new HoleSpec(1, 10.0, 0.0, 100.0));
+        layout.addHole(new HoleSpec(2, 8.0, 0.0, 100.0));
+        MachineProfile machine = new MachineProfile(30.0, 100.0, 5.0);
+        Toolpath path = new ToolpathPlanner(new DefaultDrillSizePolicy(), machine).plan(layout, 100.0);
+
+        assertEquals(200.0, path.travelMm(), 1e-9);
+        assertEquals(200.0 / 100.0 + 2 * 5.0 + 30.0, path.estimatedSeconds(), 1e-9);
+    }
+
+    @Test
+    public void testTwoOptImprovesOnNearestNeighbour() {
+        Random rnd = new Random(42);
+        int n = 400;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = rnd.nextDouble() * 2000.0;
+            ys[i] = rnd.nextDouble() * 600.0;
+            idx[i] = i;
+        }
+        int[] tour = ToolpathPlanner.tour(xs, ys, idx);
+        Set<Integer> seen = new HashSet<>();
+        for (int i : tour) {
+            seen.add(i);
+        }
+        assertEquals(n, seen.size());
+
+        // 2-opt typically takes 5-10% off a nearest-neighbour tour
+        double planned = length(xs, ys, tour);
+        double greedy = length(xs, ys, ToolpathPlanner.nearestNeighbourTour(xs, ys, idx));
+        assertTrue(planned < greedy * 0.97, "planned " + planned + " nearest neighbour " + greedy);
+    }
+
+    @Test
+    @Tag("perf")
+    public void testThousandsOfHolesPlanQuickly() {
+        HoleLayout layout = gridLayout(1000, 6, 25.0, List.of(16.0, 14.0, 12.0, 10.0));
+        ToolpathPlanner planner = new ToolpathPlanner(new DefaultDrillSizePolicy(), MachineProfile.DEFAULT);
+        planner.plan(layout, 300.0);
+        long t0 = System.nanoTime();
+        Toolpath path = planner.plan(layout, 300.0);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        assertEquals(6000, path.steps().size());
+        assertTrue(ms < 1000, "planning took " + ms + " ms");
+    }
+
+    private static double length(double[] xs, double[] ys, int[] order) {
+        double len = 0.0;
+        for (int i = 1; i < order.length; i++) {
+            len += Math.hypot(xs[order[i]] - xs[order[i - 1]], ys[order[i]] - ys[order[i - 1]]);
+        }
+        return len;
+    }
+}
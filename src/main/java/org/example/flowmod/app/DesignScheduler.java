@@ -0,0 +1,207 @@
+package org.example.flowmod.app;
+
+import javafx.concurrent.Task;
+import org.example.flowmod.engine.Cancellation;
+
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the designs of all workspace tabs, at most {@code workers} at a time.
+ * <p>
+ * Jobs waiting for one of the {@code workers} slots are ordered by
+ * {@link Priority}, then by submission, so the focused tab's design starts
+ * before any queued background design; switching tabs re-orders a waiting
+ * job. A job only gets a thread once it gets a slot. A running background
+ * job gives up its slot at the engine's next {@link Cancellation#check()}
+ * whenever a foreground job is waiting, and parks on its thread until it is
+ * first in line again. Parked jobs keep their threads, so the pool holds up
+ * to twice {@code workers} threads; a background job only steps aside while
+ * one of them is free for the foreground job. The shared scheduler leaves
+ * one core for the FX thread. Cancelling a job drops it if it is waiting,
+ * or interrupts it, which the engine checks at the same points.
+ */
+final class DesignScheduler {
+
+    enum Priority {
+        FOREGROUND,
+        BACKGROUND
+    }
+
+    private static final DesignScheduler SHARED =
+            new DesignScheduler(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final int workers;
+    private final int maxThreads;
+    private final ThreadPoolExecutor pool;
+    // guarded by this: jobs waiting for a slot, in the order they get one
+    private final TreeSet<Job> waiting = new TreeSet<>();
+    private int busy;
+    private int threadsInUse;
+    private long submitted;
+
+    DesignScheduler(int workers) {
+        AtomicInteger count = new AtomicInteger();
+        this.workers = workers;
+        this.maxThreads = 2 * workers;
+        this.pool = new ThreadPoolExecutor(maxThreads, maxThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "design-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /** Scheduler shared by every tab of the application. */
+    static DesignScheduler shared() {
+        return SHARED;
+    }
+
+    /** Queue {@code task} at {@code priority}. */
+    Job submit(Task<?> task, Priority priority) {
+        Job job;
+        synchronized (this) {
+            job = new Job(task, priority, submitted++);
+            waiting.add(job);
+            dispatch();
+        }
+        return job;
+    }
+
+    /** Threads the pool has started. */
+    int threadCount() {
+        return pool.getPoolSize();
+    }
+
+    /**
+     * Hand free slots to waiting jobs in order. A job that has not started
+     * is passed over while every thread is taken, so a parked job behind it
+     * can still resume.
+     */
+    private void dispatch() {
+        Iterator<Job> it = waiting.iterator();
+        while (busy < workers && it.hasNext()) {
+            Job job = it.next();
+            if (!job.parked && threadsInUse == maxThreads) {
+                continue;
+            }
+            it.remove();
+            busy++;
+            job.holding = true;
+            if (job.parked) {
+                job.parked = false;
+                notifyAll();
+            } else {
+                threadsInUse++;
+                pool.execute(job);
+            }
+        }
+    }
+
+    /** Whether the first waiting job is a foreground one that could start now. */
+    private boolean foregroundReady() {
+        if (waiting.isEmpty()) {
+            return false;
+        }
+        Job first = waiting.first();
+        return first.priority == Priority.FOREGROUND && (first.parked || threadsInUse < maxThreads);
+    }
+
+    /** A submitted design. */
+    final class Job implements Runnable, Comparable<Job> {
+        private final Task<?> task;
+        private final long sequence;
+        // guarded by the scheduler; priority only changes while the job is out of the waiting set
+        private Priority priority;
+        private boolean holding;
+        private boolean parked;
+        private boolean cancelled;
+
+        private Job(Task<?> task, Priority priority, long sequence) {
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            Cancellation.onCheck(this::yieldToForeground);
+            try {
+                task.run();
+            } finally {
+                Cancellation.onCheck(null);
+                synchronized (DesignScheduler.this) {
+                    if (holding) {
+                        holding = false;
+                        busy--;
+                    }
+                    threadsInUse--;
+                    dispatch();
+                }
+            }
+        }
+
+        /** Engine checkpoint: a background job steps aside while a foreground job waits. */
+        private void yieldToForeground() {
+            synchronized (DesignScheduler.this) {
+                if (priority != Priority.BACKGROUND || !foregroundReady()) {
+                    return;
+                }
+                holding = false;
+                busy--;
+                parked = true;
+                waiting.add(this);
+                dispatch();
+                try {
+                    while (parked && !cancelled) {
+                        DesignScheduler.this.wait();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                if (parked) {
+                    // cancelled before its turn came round again
+                    parked = false;
+                    waiting.remove(this);
+                    throw new CancellationException("Design cancelled");
+                }
+            }
+        }
+
+        /** Move the job to {@code next}, re-ordering it if it is waiting. */
+        void setPriority(Priority next) {
+            synchronized (DesignScheduler.this) {
+                boolean queued = waiting.remove(this);
+                priority = next;
+                if (queued) {
+                    waiting.add(this);
+                    dispatch();
+                }
+            }
+        }
+
+        /** Drop the job if it is waiting, or interrupt it if it is running. */
+        void cancel() {
+            // cancel the task first, so a parked job woken below ends as cancelled, not failed
+            task.cancel(true);
+            synchronized (DesignScheduler.this) {
+                cancelled = true;
+                if (!parked) {
+                    waiting.remove(this);
+                }
+                DesignScheduler.this.notifyAll();
+            }
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int c = priority.compareTo(other.priority);
+            return c != 0 ? c : Long.compare(sequence, other.sequence);
+        }
+    }
+}
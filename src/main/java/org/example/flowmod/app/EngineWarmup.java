@@ -0,0 +1,64 @@
+package org.example.flowmod.app;
+
+import org.example.flowmod.engine.DesignNotConvergedException;
+import org.example.flowmod.engine.FlowParameters;
+import org.example.flowmod.engine.FlowPhysics;
+import org.example.flowmod.engine.HeaderType;
+import org.example.flowmod.engine.HoleLayout;
+import org.example.flowmod.engine.RuleBasedHoleOptimizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Synthetic designs run in the background while the window comes up, so the
+ * engine (and commons-math behind it) is loaded and its hot paths compiled
+ * before the first Design press. The designs cover both header modes and the
+ * calls {@link MainController} makes on a result; besides the default
+ * fields, each mode has a case that bisects several pitches and tapers at
+ * each one before it converges, so the whole search path gets compiled.
+ */
+final class EngineWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineWarmup.class);
+
+    /** Enough rounds for the solver loops to reach the optimizing compiler. */
+    private static final int ROUNDS = 50;
+
+    static final FlowParameters[] CASES = {
+            // the designer's default field values
+            new FlowParameters(150.0, 100.0 * 0.0631, 1200.0),
+            // converges at 105 mm after five tapers
+            new FlowParameters(40.0, 6.3, 5000.0),
+            // converges at 55 mm after tapering to 8 mm
+            new FlowParameters(50.0, 6.3, 3000.0, HeaderType.PRESSURE),
+    };
+
+    private EngineWarmup() {
+    }
+
+    /** Start the warm-up on a low-priority daemon thread. */
+    static Thread start() {
+        Thread t = new Thread(EngineWarmup::run, "engine-warmup");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+        return t;
+    }
+
+    static void run() {
+        long t0 = System.nanoTime();
+        RuleBasedHoleOptimizer optimizer = MainController.newOptimizer();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (FlowParameters p : CASES) {
+                try {
+                    HoleLayout layout = optimizer.optimize(p);
+                    FlowPhysics.computeReynolds(p);
+                    FlowPhysics.computeUniformityError(layout, p);
+                } catch (DesignNotConvergedException ex) {
+                    // never expected for these cases; the warm-up must not take the app down
+                }
+            }
+        }
+        log.debug("Engine warm-up finished in {} ms", (System.nanoTime() - t0) / 1_000_000);
+    }
+}
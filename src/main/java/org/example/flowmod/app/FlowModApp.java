@@ -1,17 +1,50 @@
 package org.example.flowmod.app;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class FlowModApp extends Application {
+
+    /**
+     * Set by the {@code appCds} build task: exit once the warm-up is done so
+     * the JVM can dump the classes it loaded into the CDS archive.
+     */
+    private static final boolean CDS_TRAINING = Boolean.getBoolean("flowmod.cdsTraining");
+
+    private Thread warmup;
+    private Parent root;
+
+    /**
+     * Runs on the launcher thread before {@link #start}: the workspace is loaded
+     * here while the engine warms up on its own thread.
+     */
+    @Override
+    public void init() throws Exception {
+        warmup = EngineWarmup.start();
+        root = new FXMLLoader(getClass().getResource("/layout/Workspace.fxml")).load();
+    }
+
     @Override
     public void start(Stage stage) throws Exception {
-        stage.setScene(new Scene(
-            new FXMLLoader(getClass().getResource("/layout/MainView.fxml")).load()));
+        stage.setScene(new Scene(root));
         stage.setTitle("Flow Modifier Designer");
         stage.show();
+        if (CDS_TRAINING) {
+            Thread exit = new Thread(() -> {
+                try {
+                    warmup.join();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                Platform.runLater(Platform::exit);
+            }, "cds-training");
+            exit.setDaemon(true);
+            exit.start();
+        }
     }
 
     public static void main(String[] args) { launch(args); }
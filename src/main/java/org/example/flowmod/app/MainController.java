@@ -1,6 +1,8 @@
 package org.example.flowmod.app;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.FileChooser;
@@ -9,6 +11,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public final class MainController {
 
@@ -16,16 +20,37 @@ public final class MainController {
 
     @FXML private TextField pipeField, flowField, lenField;
     @FXML private ChoiceBox<String> modeChoice;
-    @FXML private Button designBtn, exportCsvBtn, exportSvgBtn;
+    @FXML private Button designBtn, cancelBtn, exportCsvBtn, exportSvgBtn;
     @FXML private TableView<HoleSpec> table;
     @FXML private TableColumn<HoleSpec, Number> posCol, rowCol, diaCol;
-    @FXML private Label reLabel, uniLabel, sheetLabel, statusLabel;
+    @FXML private Label reLabel, uniLabel, sheetLabel, statusLabel, previewLabel;
+    @FXML private ProfileChart profileChart;
 
-    private final RuleBasedHoleOptimizer optimizer = new RuleBasedHoleOptimizer(
-            new BasicDesignRules(10, java.util.List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0)),
-            new DefaultDrillSizePolicy(), new FlowPhysics());
+    /** Journal the live preview surface is loaded from; see {@link SurfaceBuilder}. */
+    static final Path SURFACE_JOURNAL = Path.of(System.getProperty("flowmod.surface",
+            System.getProperty("user.home") + "/.flowmod/surface.journal"));
+
+    private final RuleBasedHoleOptimizer optimizer = newOptimizer();
+    private final DesignScheduler scheduler = DesignScheduler.shared();
 
     private HoleLayout layout;
+    private volatile ResponseSurface surface;
+    /** Incremented per Design press so results of superseded runs are dropped. */
+    private long designGeneration;
+    /** The design in flight for this view, if any. */
+    private DesignScheduler.Job running;
+    private DesignScheduler.Priority priority = DesignScheduler.Priority.FOREGROUND;
+
+    /** A designed layout with its solved profile, prepared on the design thread. */
+    private record Design(HoleLayout layout, HeaderProfile profile, ProfileChart.Data chart) {
+    }
+
+    /** Optimizer configuration shared by the designer and the offline surface build. */
+    static RuleBasedHoleOptimizer newOptimizer() {
+        return new RuleBasedHoleOptimizer(
+                new BasicDesignRules(10, java.util.List.of(16.0, 14.0, 12.0, 10.0, 8.0, 6.0, 4.0)),
+                new DefaultDrillSizePolicy(), new FlowPhysics());
+    }
 
     @FXML
     private void initialize() {
@@ -35,7 +60,59 @@ public final class MainController {
         diaCol.setCellValueFactory(c -> new SimpleDoubleProperty(c.getValue().holeDiameterMm()));
         if (modeChoice != null) {
             modeChoice.getSelectionModel().selectFirst();
+            modeChoice.valueProperty().addListener((o, was, now) -> updatePreview());
+        }
+        for (TextField field : new TextField[]{pipeField, flowField, lenField}) {
+            field.textProperty().addListener((o, was, now) -> updatePreview());
+        }
+        loadSurface();
+    }
+
+    /** Load the preview surface off the FX thread, if one has been built. */
+    private void loadSurface() {
+        if (!Files.exists(SURFACE_JOURNAL)) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                surface = ResponseSurface.fromJournal(SURFACE_JOURNAL);
+                Platform.runLater(this::updatePreview);
+            } catch (Exception ex) {
+                log.warn("Could not load response surface {}", SURFACE_JOURNAL, ex);
+            }
+        }, "surface-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private FlowParameters parseParameters() {
+        double id   = parseDoubleField(pipeField);
+        double gpm  = parseDoubleField(flowField);
+        double len  = parseDoubleField(lenField);
+
+        log.debug("Parsed input: id={} flow={} len={}", id, gpm, len);
+
+        double lps = gpm * 0.0631;   // GPM → L/s
+        return new FlowParameters(id, lps, len, selectedHeaderType());
+    }
+
+    /** Show the surface's prediction for the current field values. */
+    private void updatePreview() {
+        ResponseSurface s = surface;
+        if (previewLabel == null || s == null) {
+            return;
         }
+        FlowParameters p;
+        try {
+            p = parseParameters();
+        } catch (IllegalArgumentException ex) {
+            previewLabel.setText("Predicted: –");
+            return;
+        }
+        previewLabel.setText(s.predict(p)
+                .map(pr -> String.format("Predicted: %.2f %% · pitch %.0f mm · %.0f drills",
+                        pr.uniformityPct(), pr.pitchMm(), pr.drillCount()))
+                .orElse("Predicted: –"));
     }
 
     private static double parseDoubleField(TextField field) {
@@ -46,6 +123,11 @@ public final class MainController {
         return Double.parseDouble(text);
     }
 
+    private HeaderType selectedHeaderType() {
+        String mode = modeChoice == null ? null : modeChoice.getValue();
+        return "Pressure".equals(mode) ? HeaderType.PRESSURE : HeaderType.SUCTION;
+    }
+
     /**
      * Display an error message to the user and log it.
      */
@@ -56,55 +138,132 @@ public final class MainController {
         log.error(message);
     }
 
+    /**
+     * Called by the workspace as this view's tab gains or loses focus; the
+     * focused tab's design is scheduled ahead of the others.
+     */
+    void setForeground(boolean foreground) {
+        priority = foreground ? DesignScheduler.Priority.FOREGROUND : DesignScheduler.Priority.BACKGROUND;
+        if (running != null) {
+            running.setPriority(priority);
+        }
+    }
+
+    /** Cancel any design in flight; called when the view's tab is closed. */
+    void dispose() {
+        designGeneration++;
+        if (running != null) {
+            running.cancel();
+            running = null;
+        }
+    }
+
+    @FXML
+    private void onCancel() {
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
     @FXML
     private void onDesign() {
         statusLabel.setText("");
+        FlowParameters p;
         try {
-            double id   = parseDoubleField(pipeField);
-            double gpm  = parseDoubleField(flowField);
-            double len  = parseDoubleField(lenField);
-
-            log.debug("Parsed input: id={} flow={} len={}", id, gpm, len);
-
-            double lps = gpm * 0.0631;   // GPM → L/s
-            FlowParameters p = new FlowParameters(id, lps, len);
+            p = parseParameters();
             log.debug("Constructed parameters: {}", p);
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
 
-            layout = optimizer.optimize(p);
-            log.debug("Optimiser produced {} holes", layout.getHoles().size());
-
-            table.getItems().setAll(layout.getHoles());
+        if (running != null) {
+            running.cancel();
+        }
+        long generation = ++designGeneration;
+        statusLabel.setText("Designing…");
+        Task<Design> task = new Task<>() {
+            @Override
+            protected Design call() {
+                HoleLayout designed = optimizer.optimize(p);
+                HeaderProfile profile = HeaderProfile.solve(designed, p);
+                return new Design(designed, profile, ProfileChart.prepare(profile));
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (generation == designGeneration) {
+                finished();
+                showLayout(p, task.getValue());
+            }
+        });
+        task.setOnFailed(e -> {
+            if (generation == designGeneration) {
+                finished();
+                fail(task.getException());
+            }
+        });
+        task.setOnCancelled(e -> {
+            if (generation == designGeneration) {
+                finished();
+                statusLabel.setText("Cancelled");
+            }
+        });
+        running = scheduler.submit(task, priority);
+        if (cancelBtn != null) {
+            cancelBtn.setDisable(false);
+        }
+    }
 
-            double Re = FlowPhysics.computeReynolds(p);
-            reLabel.setText(String.format("Reynolds: %.0f", Re));
+    private void finished() {
+        running = null;
+        statusLabel.setText("");
+        if (cancelBtn != null) {
+            cancelBtn.setDisable(true);
+        }
+    }
 
-            double err = FlowPhysics.computeUniformityError(layout, p);
-            uniLabel.setText(String.format("Uniformity: %.2f %%", err));
-            if (err > DesignRules.UNIFORMITY_TARGET_PCT) {
-                uniLabel.setStyle("-fx-text-fill: red;");
-            } else {
-                uniLabel.setStyle("-fx-text-fill: -fx-text-base-color;");
-            }
-            log.debug("Computed uniformity error {}", err);
+    private void showLayout(FlowParameters p, Design design) {
+        layout = design.layout();
+        log.debug("Optimiser produced {} holes", layout.getHoles().size());
 
-            double circumference = Math.PI * p.pipeDiameterMm();
-            sheetLabel.setText(String.format("Sheet: %.0f mm × %.0f mm",
-                    circumference, p.headerLenMm()));
-        } catch (DesignNotConvergedException ex) {
-            showError(ex.getMessage());
-            table.getItems().clear();
+        table.getItems().setAll(layout.getHoles());
 
-        } catch (Throwable t) {
-            t.printStackTrace();
-            table.getItems().clear();
-            statusLabel.setText("Unhandled: " + t.getClass().getSimpleName());
+        double Re = FlowPhysics.computeReynolds(p);
+        reLabel.setText(String.format("Reynolds: %.0f", Re));
 
-            uniLabel.setText(t.getMessage());
+        double err = design.profile().uniformityPct();
+        uniLabel.setText(String.format("Uniformity: %.2f %%", err));
+        if (err > DesignRules.UNIFORMITY_TARGET_PCT) {
             uniLabel.setStyle("-fx-text-fill: red;");
-            log.error("Design failed", t);
-            showError(t.getMessage());
+        } else {
+            uniLabel.setStyle("-fx-text-fill: -fx-text-base-color;");
+        }
+        log.debug("Computed uniformity error {}", err);
+        if (profileChart != null) {
+            profileChart.show(design.chart());
+        }
+
+        double circumference = Math.PI * p.pipeDiameterMm();
+        sheetLabel.setText(String.format("Sheet: %.0f mm × %.0f mm",
+                circumference, p.headerLenMm()));
+    }
 
+    private void fail(Throwable t) {
+        table.getItems().clear();
+        if (profileChart != null) {
+            profileChart.clear();
         }
+        if (t instanceof DesignNotConvergedException) {
+            showError(t.getMessage());
+            return;
+        }
+        t.printStackTrace();
+        statusLabel.setText("Unhandled: " + t.getClass().getSimpleName());
+
+        uniLabel.setText(t.getMessage());
+        uniLabel.setStyle("-fx-text-fill: red;");
+        log.error("Design failed", t);
+        showError(t.getMessage());
     }
 
     @FXML
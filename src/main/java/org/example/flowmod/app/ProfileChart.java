@@ -0,0 +1,218 @@
+package org.example.flowmod.app;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+import org.example.flowmod.engine.HeaderProfile;
+import org.example.flowmod.engine.ProfilePyramid;
+
+/**
+ * Row flow and header pressure along the header.
+ * <p>
+ * Both series are drawn on a canvas as one min/max bar per pixel column,
+ * read from a {@link ProfilePyramid}, so a redraw costs the same for ten rows
+ * or a hundred thousand and panning stays smooth on long headers. The
+ * pyramids are built by {@link #prepare} on the design thread; only the
+ * per-column lookups run on the FX thread. Drag to pan, scroll to zoom about
+ * the pointer and double-click to show the whole header.
+ */
+public final class ProfileChart extends Region {
+
+    private static final double LEFT = 56;
+    private static final double RIGHT = 56;
+    private static final double TOP = 8;
+    private static final double BOTTOM = 20;
+    private static final double ZOOM_STEP = 1.25;
+    private static final Color FLOW = Color.STEELBLUE;
+    private static final Color PRESSURE = Color.DARKORANGE;
+
+    /** Render data of one solved layout. */
+    record Data(ProfilePyramid flow, ProfilePyramid pressure) {
+    }
+
+    private final Canvas canvas = new Canvas();
+    private Data data;
+    // visible window along the header, mm
+    private double x0;
+    private double x1;
+    private double dragStartX;
+    private double dragStartX0;
+    // per-column buffers, reused while the width is unchanged
+    private double[] flowMin = new double[0];
+    private double[] flowMax = new double[0];
+    private double[] pressureMin = new double[0];
+    private double[] pressureMax = new double[0];
+
+    public ProfileChart() {
+        getChildren().add(canvas);
+        setMinHeight(120);
+        setPrefHeight(180);
+        canvas.setOnScroll(e -> {
+            if (data != null && e.getDeltaY() != 0) {
+                zoom(e.getDeltaY() > 0 ? 1 / ZOOM_STEP : ZOOM_STEP, toMm(e.getX()));
+            }
+        });
+        canvas.setOnMousePressed(e -> {
+            dragStartX = e.getX();
+            dragStartX0 = x0;
+        });
+        canvas.setOnMouseDragged(e -> {
+            if (data != null) {
+                double span = x1 - x0;
+                pan(dragStartX0 - (e.getX() - dragStartX) * span / plotWidth(), span);
+            }
+        });
+        canvas.setOnMouseClicked(e -> {
+            if (data != null && e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                showAll();
+            }
+        });
+    }
+
+    /** Build the render data for a solved profile; safe to call off the FX thread. */
+    static Data prepare(HeaderProfile profile) {
+        return new Data(new ProfilePyramid(profile.positionsMm(), profile.flowsLps()),
+                new ProfilePyramid(profile.positionsMm(), profile.pressuresKPa()));
+    }
+
+    /** Show {@code d}, zoomed out to the whole header. */
+    void show(Data d) {
+        data = d;
+        showAll();
+    }
+
+    void clear() {
+        data = null;
+        draw();
+    }
+
+    private void showAll() {
+        x0 = data.flow().firstX();
+        x1 = x0 + fullSpan();
+        draw();
+    }
+
+    private void zoom(double factor, double aboutMm) {
+        double full = fullSpan();
+        double span = Math.max(Math.min((x1 - x0) * factor, full), 1.0);
+        double start = aboutMm - (aboutMm - x0) * span / (x1 - x0);
+        pan(start, span);
+    }
+
+    /** Move the window to start at {@code start}, kept inside the header. */
+    private void pan(double start, double span) {
+        double first = data.flow().firstX();
+        double end = first + fullSpan();
+        start = Math.max(first, Math.min(start, end - span));
+        x0 = start;
+        x1 = start + span;
+        draw();
+    }
+
+    private double fullSpan() {
+        return Math.max(data.flow().lastX() - data.flow().firstX(), 1.0);
+    }
+
+    private double plotWidth() {
+        return Math.max(1.0, canvas.getWidth() - LEFT - RIGHT);
+    }
+
+    private double toMm(double px) {
+        return x0 + (px - LEFT) * (x1 - x0) / plotWidth();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+        draw();
+    }
+
+    private void draw() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        g.clearRect(0, 0, w, h);
+        double plotH = h - TOP - BOTTOM;
+        if (data == null || plotH <= 0 || w <= LEFT + RIGHT) {
+            return;
+        }
+        int columns = (int) plotWidth();
+        if (flowMin.length != columns) {
+            flowMin = new double[columns];
+            flowMax = new double[columns];
+            pressureMin = new double[columns];
+            pressureMax = new double[columns];
+        }
+        data.flow().downsample(x0, x1, flowMin, flowMax);
+        data.pressure().downsample(x0, x1, pressureMin, pressureMax);
+
+        g.setStroke(Color.GRAY);
+        g.setLineWidth(1);
+        g.strokeRect(LEFT - 0.5, TOP - 0.5, columns + 1, plotH + 1);
+        plot(g, data.flow(), flowMin, flowMax, FLOW, plotH);
+        plot(g, data.pressure(), pressureMin, pressureMax, PRESSURE, plotH);
+
+        g.setTextBaseline(VPos.CENTER);
+        g.setFill(FLOW);
+        g.setTextAlign(TextAlignment.RIGHT);
+        g.fillText(String.format("%.3g", data.flow().max()), LEFT - 4, TOP);
+        g.fillText(String.format("%.3g", data.flow().min()), LEFT - 4, TOP + plotH);
+        g.fillText("L/s", LEFT - 4, TOP + plotH / 2);
+        g.setFill(PRESSURE);
+        g.setTextAlign(TextAlignment.LEFT);
+        g.fillText(String.format("%.3g", data.pressure().max()), LEFT + columns + 4, TOP);
+        g.fillText(String.format("%.3g", data.pressure().min()), LEFT + columns + 4, TOP + plotH);
+        g.fillText("kPa", LEFT + columns + 4, TOP + plotH / 2);
+        g.setFill(Color.GRAY);
+        g.setTextBaseline(VPos.BOTTOM);
+        g.fillText(String.format("%.0f mm", x0), LEFT, h);
+        g.setTextAlign(TextAlignment.RIGHT);
+        g.fillText(String.format("%.0f mm", x1), LEFT + columns, h);
+    }
+
+    /**
+     * One series scaled to its whole-header range, so the axis does not jump
+     * while panning: a min/max bar per column joined through the column
+     * midpoints, bridging columns without rows when zoomed in past the pitch.
+     */
+    private static void plot(GraphicsContext g, ProfilePyramid series, double[] min, double[] max,
+                             Color color, double plotH) {
+        double lo = series.min();
+        double range = series.max() - lo;
+        if (range <= 0) {
+            range = Math.max(Math.abs(lo), 1e-12);
+            lo -= range / 2;
+        }
+        double scale = plotH / range;
+        g.setStroke(color);
+        g.setLineWidth(1);
+        g.beginPath();
+        boolean started = false;
+        for (int c = 0; c < min.length; c++) {
+            if (Double.isNaN(min[c])) {
+                continue;
+            }
+            double x = LEFT + c + 0.5;
+            double yMin = TOP + plotH - (min[c] - lo) * scale;
+            double yMax = TOP + plotH - (max[c] - lo) * scale;
+            double yMid = (yMin + yMax) / 2;
+            if (started) {
+                g.lineTo(x, yMid);
+            } else {
+                g.moveTo(x, yMid);
+                started = true;
+            }
+            if (yMin - yMax >= 1) {
+                g.moveTo(x, yMin);
+                g.lineTo(x, yMax);
+                g.moveTo(x, yMid);
+            }
+        }
+        g.stroke();
+    }
+}
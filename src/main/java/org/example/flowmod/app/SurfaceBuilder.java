@@ -0,0 +1,44 @@
+package org.example.flowmod.app;
+
+import org.example.flowmod.engine.FlowParameterGrid;
+import org.example.flowmod.engine.HeaderType;
+import org.example.flowmod.engine.ResponseSurface;
+import org.example.flowmod.engine.SweepRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Offline builder for the response surface used by the designer's live
+ * preview. Re-running resumes from the journal.
+ * <p>
+ * Usage: {@code SurfaceBuilder [journal] [threads]}
+ */
+public final class SurfaceBuilder {
+
+    /** GPM to L/s, as in the designer's flow field. */
+    private static final double LPS_PER_GPM = 0.0631;
+
+    private SurfaceBuilder() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path journal = args.length > 0 ? Path.of(args[0]) : MainController.SURFACE_JOURNAL;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        if (journal.getParent() != null) {
+            Files.createDirectories(journal.getParent());
+        }
+
+        double[] pipes = FlowParameterGrid.axis(50.0, 300.0, 11);
+        double[] flows = FlowParameterGrid.axis(10.0 * LPS_PER_GPM, 500.0 * LPS_PER_GPM, 15);
+        double[] lens = FlowParameterGrid.axis(500.0, 6000.0, 12);
+        SweepRunner runner = SweepRunner.forOptimizer(MainController.newOptimizer(), threads);
+        for (HeaderType type : HeaderType.values()) {
+            FlowParameterGrid grid = new FlowParameterGrid(pipes, flows, lens, type);
+            System.out.printf("%s: %d points%n", type, grid.size());
+            ResponseSurface.build(grid, runner, journal);
+        }
+        System.out.println("Surface written to " + journal);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.flowmod.app;
+
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Tabs of independent design views for comparing candidate headers side by
+ * side. All tabs share {@link DesignScheduler#shared()}; the selected tab's
+ * design is scheduled in the foreground, and the others in the background,
+ * where a running design pauses for a waiting foreground one.
+ */
+public final class WorkspaceController {
+
+    @FXML private TabPane tabs;
+
+    private int created;
+
+    @FXML
+    private void initialize() {
+        tabs.getSelectionModel().selectedItemProperty().addListener((o, was, now) -> {
+            if (was != null) {
+                controller(was).setForeground(false);
+            }
+            if (now != null) {
+                controller(now).setForeground(true);
+            }
+        });
+        addTab();
+    }
+
+    @FXML
+    private void onNewTab() {
+        addTab();
+    }
+
+    private void addTab() {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/layout/MainView.fxml"));
+        Parent view;
+        try {
+            view = loader.load();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        MainController controller = loader.getController();
+        controller.setForeground(false);
+        Tab tab = new Tab("Design " + ++created, view);
+        tab.setUserData(controller);
+        tab.setOnClosed(e -> controller.dispose());
+        tabs.getTabs().add(tab);
+        tabs.getSelectionModel().select(tab);
+    }
+
+    private static MainController controller(Tab tab) {
+        return (MainController) tab.getUserData();
+    }
+}
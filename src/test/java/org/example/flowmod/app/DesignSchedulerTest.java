@@ -0,0 +1,182 @@
+package org.example.flowmod.app;
+
+import javafx.concurrent.Task;
+import javafx.embed.swing.JFXPanel;
+import org.example.flowmod.engine.Cancellation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DesignSchedulerTest {
+
+    @BeforeAll
+    public static void startToolkit() {
+        // initialise JavaFX runtime
+        new JFXPanel();
+    }
+
+    private static Task<Void> task(Runnable body) {
+        return new Task<>() {
+            @Override
+            protected Void call() {
+                body.run();
+                return null;
+            }
+        };
+    }
+
+    private static Task<Void> blocking(CountDownLatch started, CountDownLatch release) {
+        return task(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Test
+    public void testForegroundRunsBeforeQueuedBackground() throws Exception {
+        DesignScheduler scheduler = new DesignScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(blocking(started, release), DesignScheduler.Priority.FOREGROUND);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        Task<Void> first = task(() -> order.add("background"));
+        Task<Void> second = task(() -> order.add("foreground"));
+        scheduler.submit(first, DesignScheduler.Priority.BACKGROUND);
+        scheduler.submit(second, DesignScheduler.Priority.FOREGROUND);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("foreground", "background"), order);
+    }
+
+    @Test
+    public void testReprioritizedJobOvertakes() throws Exception {
+        DesignScheduler scheduler = new DesignScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(blocking(started, release), DesignScheduler.Priority.FOREGROUND);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        Task<Void> a = task(() -> order.add("a"));
+        Task<Void> b = task(() -> order.add("b"));
+        scheduler.submit(a, DesignScheduler.Priority.BACKGROUND);
+        DesignScheduler.Job jobB = scheduler.submit(b, DesignScheduler.Priority.BACKGROUND);
+        // the user switched to b's tab while both were waiting
+        jobB.setPriority(DesignScheduler.Priority.FOREGROUND);
+        release.countDown();
+        a.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("b", "a"), order);
+    }
+
+    @Test
+    public void testQueuedJobsWaitWithoutThreads() throws Exception {
+        DesignScheduler scheduler = new DesignScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(blocking(started, release), DesignScheduler.Priority.FOREGROUND);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<Task<Void>> queued = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Task<Void> t = task(() -> { });
+            queued.add(t);
+            scheduler.submit(t, i % 2 == 0 ? DesignScheduler.Priority.BACKGROUND : DesignScheduler.Priority.FOREGROUND);
+        }
+        assertEquals(1, scheduler.threadCount());
+
+        release.countDown();
+        for (Task<Void> t : queued) {
+            t.get(5, TimeUnit.SECONDS);
+        }
+        assertTrue(scheduler.threadCount() <= 2, "threads " + scheduler.threadCount());
+    }
+
+    @Test
+    public void testRunningBackgroundJobPausesForForeground() throws Exception {
+        DesignScheduler scheduler = new DesignScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        List<String> order = new CopyOnWriteArrayList<>();
+        // spins through engine checkpoints until the foreground job has run
+        Task<Void> background = task(() -> {
+            started.countDown();
+            while (!done.get()) {
+                Cancellation.check();
+                Thread.onSpinWait();
+            }
+            order.add("background");
+        });
+        scheduler.submit(background, DesignScheduler.Priority.BACKGROUND);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Task<Void> foreground = task(() -> {
+            order.add("foreground");
+            done.set(true);
+        });
+        scheduler.submit(foreground, DesignScheduler.Priority.FOREGROUND);
+        foreground.get(5, TimeUnit.SECONDS);
+        background.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("foreground", "background"), order);
+    }
+
+    @Test
+    public void testCancelWakesPausedJob() throws Exception {
+        DesignScheduler scheduler = new DesignScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Task<Void> background = task(() -> {
+            started.countDown();
+            while (true) {
+                Cancellation.check();
+                Thread.onSpinWait();
+            }
+        });
+        DesignScheduler.Job job = scheduler.submit(background, DesignScheduler.Priority.BACKGROUND);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch fgStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(blocking(fgStarted, release), DesignScheduler.Priority.FOREGROUND);
+        assertTrue(fgStarted.await(5, TimeUnit.SECONDS));
+        // the background job is paused at a checkpoint; cancelling it must not need the slot
+        job.cancel();
+        assertTrue(background.isCancelled());
+        release.countDown();
+
+        CountDownLatch ran = new CountDownLatch(1);
+        scheduler.submit(task(ran::countDown), DesignScheduler.Priority.BACKGROUND);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelInterruptsRunningJob() throws Exception {
+        DesignScheduler scheduler = new DesignScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Task<Void> stuck = blocking(started, new CountDownLatch(1));
+        DesignScheduler.Job job = scheduler.submit(stuck, DesignScheduler.Priority.FOREGROUND);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        job.cancel();
+        assertTrue(stuck.isCancelled());
+
+        // the worker is free again
+        CountDownLatch ran = new CountDownLatch(1);
+        scheduler.submit(task(ran::countDown), DesignScheduler.Priority.BACKGROUND);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.flowmod.app;
+
+import org.example.flowmod.engine.FlowParameters;
+import org.example.flowmod.engine.HeaderType;
+import org.example.flowmod.engine.RuleBasedHoleOptimizer;
+import org.example.flowmod.engine.SpacingSearch;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineWarmupTest {
+
+    @Test
+    public void testCasesSearchAndConvergeInBothModes() {
+        RuleBasedHoleOptimizer optimizer = MainController.newOptimizer();
+        Set<HeaderType> searched = EnumSet.noneOf(HeaderType.class);
+        for (FlowParameters p : EngineWarmup.CASES) {
+            // throws DesignNotConvergedException if a case stops converging
+            SpacingSearch.Result r = optimizer.search(p);
+            if (r.taperRuns() >= 4) {
+                searched.add(p.headerType());
+            }
+        }
+        assertEquals(EnumSet.allOf(HeaderType.class), searched);
+    }
+}